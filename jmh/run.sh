@@ -0,0 +1,33 @@
+#!/bin/sh
+#
+# Builds the game and its benchmarks and runs them with JMH, with the GC
+# profiler on, writing the results to build/jmh/results.json.
+#
+# JMH_CLASSPATH must list the JMH jars: jmh-core, jmh-generator-annprocess
+# and their dependencies, jopt-simple and commons-math3. Any arguments are
+# passed to JMH, e.g. a regular expression selecting the benchmarks to run:
+#
+#   JMH_CLASSPATH=$(echo lib/*.jar | tr ' ' ':') jmh/run.sh GameScreen
+#
+# Run with -h to list every JMH option.
+
+set -e
+
+if [ -z "$JMH_CLASSPATH" ]; then
+	echo "JMH_CLASSPATH must list the JMH jars." >&2
+	exit 1
+fi
+
+cd "$(dirname "$0")/.."
+OUT=build/jmh
+rm -rf "$OUT"
+mkdir -p "$OUT/classes"
+
+# Benchmarks share packages with the game, so both go in the same
+# directory. The annotation processor generates the benchmark code.
+javac -d "$OUT/classes" $(find src -name '*.java')
+javac -cp "$OUT/classes:$JMH_CLASSPATH" -d "$OUT/classes" \
+	$(find jmh/src -name '*.java')
+
+java -cp "$OUT/classes:res:$JMH_CLASSPATH" org.openjdk.jmh.Main \
+	-prof gc -rf json -rff "$OUT/results.json" "$@"
@@ -0,0 +1,97 @@
+package engine;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks checking cooldowns, done several times by every update of the
+ * game screen.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class CooldownBenchmark {
+
+	/** Duration of the cooldowns, in milliseconds. */
+	private static final int DURATION = 1000;
+	/** Variance of the variable cooldown, in milliseconds. */
+	private static final int VARIANCE = 200;
+	/** Ticks per second the clock advances at. */
+	private static final int FPS = 60;
+
+	/** Clock of the cooldowns, advanced by every check. */
+	private TickClock clock;
+	/** Cooldown that has not finished yet. */
+	private Cooldown running;
+	/** Cooldown that has already finished. */
+	private Cooldown finished;
+	/** Cooldown with variance, reset each time it finishes. */
+	private Cooldown variable;
+
+	/**
+	 * Creates the cooldowns on a clock of their own.
+	 */
+	@Setup
+	public final void setUp() {
+		this.clock = new TickClock();
+		this.running = new Cooldown(this.clock, Integer.MAX_VALUE);
+		this.running.reset();
+		this.finished = new Cooldown(this.clock, 0);
+		this.variable = new Cooldown(this.clock, new Random(0), DURATION,
+				VARIANCE);
+		this.variable.reset();
+	}
+
+	/**
+	 * Checks a cooldown that has not finished.
+	 * 
+	 * @return True if finished.
+	 */
+	@Benchmark
+	public final boolean checkRunning() {
+		return this.running.checkFinished();
+	}
+
+	/**
+	 * Checks a cooldown that has finished.
+	 * 
+	 * @return True if finished.
+	 */
+	@Benchmark
+	public final boolean checkFinished() {
+		return this.finished.checkFinished();
+	}
+
+	/**
+	 * Advances the clock by an update and checks a cooldown with variance,
+	 * resetting it when finished, as the enemy ships do for shooting.
+	 * 
+	 * @return True if finished.
+	 */
+	@Benchmark
+	public final boolean tickAndCheckVariable() {
+		this.clock.tick(FPS);
+		if (this.variable.checkFinished()) {
+			this.variable.reset();
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,119 @@
+package engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import entity.EnemyShip;
+import entity.EnemyShipFormation;
+import entity.Ship;
+import screen.Screen;
+
+/**
+ * Benchmarks drawing entities on the back buffer, without a frame to show
+ * it on.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class DrawManagerBenchmark {
+
+	/** Width of the screen. */
+	private static final int WIDTH = 448;
+	/** Height of the screen. */
+	private static final int HEIGHT = 520;
+	/** Frames per second of the screen. */
+	private static final int FPS = 60;
+
+	/** Draw manager, drawing offscreen. */
+	private DrawManager drawManager;
+	/** Screen drawn. */
+	private Screen screen;
+	/** Player ship. */
+	private Ship ship;
+	/** Enemy ship. */
+	private EnemyShip enemyShip;
+
+	/**
+	 * Creates the entities and the back buffer.
+	 */
+	@Setup
+	public final void setUp() {
+		this.drawManager = DrawManager.getInstance();
+		this.screen = new Screen(WIDTH, HEIGHT, FPS);
+		this.ship = new Ship(WIDTH / 2, HEIGHT - 30);
+		this.enemyShip = new EnemyShip(WIDTH / 2, HEIGHT / 2,
+				DrawManager.SpriteType.EnemyShipA1, 0, 0);
+		this.drawManager.initDrawing(this.screen);
+	}
+
+	/**
+	 * Draws the player ship.
+	 */
+	@Benchmark
+	public final void drawShip() {
+		this.drawManager.drawEntity(this.ship, this.ship.getPositionX(),
+				this.ship.getPositionY());
+	}
+
+	/**
+	 * Draws an enemy ship.
+	 */
+	@Benchmark
+	public final void drawEnemyShip() {
+		this.drawManager.drawEntity(this.enemyShip,
+				this.enemyShip.getPositionX(), this.enemyShip.getPositionY());
+	}
+
+	/**
+	 * Clears the back buffer and draws a whole formation on it.
+	 * 
+	 * @param formation
+	 *            Formation to draw.
+	 */
+	@Benchmark
+	public final void drawFormation(final FormationState formation) {
+		this.drawManager.initDrawing(this.screen);
+		formation.formation.draw();
+	}
+
+	/**
+	 * Formation of a given size, drawn whole.
+	 */
+	@State(Scope.Thread)
+	public static class FormationState {
+		/** Size of the formation, as width x height. */
+		@Param({ "5x4", "8x7", "10x8" })
+		public String formationSize;
+
+		/** Formation drawn. */
+		private EnemyShipFormation formation;
+
+		/**
+		 * Creates the formation.
+		 */
+		@Setup
+		public final void setUp() {
+			String[] size = this.formationSize.split("x");
+			this.formation = new EnemyShipFormation(new GameSettings(
+					Integer.parseInt(size[0]), Integer.parseInt(size[1]), 0,
+					0));
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package engine;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.DrawManager.SpriteType;
+
+/**
+ * Benchmarks loading the game files. High scores are read from the scores
+ * file next to the game classes, or from the default ones if there is none.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class FileManagerBenchmark {
+
+	/** File manager. */
+	private FileManager fileManager;
+	/** Sprites to load, with the same sizes the draw manager uses. */
+	private Map<SpriteType, boolean[][]> spriteMap;
+	/** Text sprites, read from memory. */
+	private byte[] spriteText;
+
+	/**
+	 * Creates the sprite map and quiets the log, written on every load.
+	 * 
+	 * @throws IOException
+	 *             In case of loading the text sprites.
+	 */
+	@Setup
+	public final void setUp() throws IOException {
+		Core.getLogger().setLevel(Level.WARNING);
+		this.fileManager = Core.getFileManager();
+
+		this.spriteMap = DrawManager.createSpriteMap();
+		try (InputStream inputStream = FileManager.class.getClassLoader()
+				.getResourceAsStream("graphics")) {
+			this.spriteText = inputStream.readAllBytes();
+		}
+	}
+
+	/**
+	 * Loads every sprite, from the sprite pack.
+	 * 
+	 * @return Sprites loaded.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	@Benchmark
+	public final Map<SpriteType, boolean[][]> loadSprite()
+			throws IOException {
+		this.fileManager.loadSprite(this.spriteMap);
+		return this.spriteMap;
+	}
+
+	/**
+	 * Parses every sprite from the text sprites, already in memory.
+	 * 
+	 * @return Sprites parsed.
+	 * @throws IOException
+	 *             In case of parsing problems.
+	 */
+	@Benchmark
+	public final Map<SpriteType, boolean[][]> readSpriteText()
+			throws IOException {
+		FileManager.readSpriteText(new BufferedInputStream(
+				new ByteArrayInputStream(this.spriteText)), this.spriteMap);
+		return this.spriteMap;
+	}
+
+	/**
+	 * Loads the high scores.
+	 * 
+	 * @return High scores loaded.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	@Benchmark
+	public final List<Score> loadHighScores() throws IOException {
+		return this.fileManager.loadHighScores();
+	}
+}
@@ -0,0 +1,97 @@
+package entity;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks adding, moving and removing bullets, with several bullets on
+ * screen.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class BulletSystemBenchmark {
+
+	/** Width of the screen. */
+	private static final int WIDTH = 448;
+	/** Height of the screen. */
+	private static final int HEIGHT = 520;
+	/** Speed of the bullets. */
+	private static final int SPEED = 4;
+
+	/** Number of bullets on screen. */
+	@Param({ "4", "32", "256" })
+	public int bulletCount;
+
+	/** Bullets added and removed every invocation. */
+	private BulletSystem churned;
+	/** Bullets kept on screen, moved every invocation. */
+	private BulletSystem moved;
+
+	/**
+	 * Creates the bullet systems, already grown to their size.
+	 */
+	@Setup
+	public final void setUp() {
+		this.churned = new BulletSystem(this.bulletCount);
+		this.moved = new BulletSystem(this.bulletCount);
+		for (int i = 0; i < this.bulletCount; i++)
+			this.moved.add(i * WIDTH / this.bulletCount,
+					i * HEIGHT / this.bulletCount, SPEED, i % 2);
+	}
+
+	/**
+	 * Shoots every bullet and removes them all again, the first one each
+	 * time, as bullets leaving the screen or hitting a ship are removed.
+	 * 
+	 * @return Bullets left, none.
+	 */
+	@Benchmark
+	public final int addAndRemove() {
+		for (int i = 0; i < this.bulletCount; i++)
+			this.churned.add(i, i, SPEED, BulletSystem.PLAYER);
+		while (this.churned.getCount() > 0)
+			this.churned.remove(0);
+		return this.churned.getCount();
+	}
+
+	/**
+	 * Moves every bullet and takes its view, as done once per update of the
+	 * game screen. Bullets leaving the screen start over from the top.
+	 * 
+	 * @param blackhole
+	 *            Consumer of the bullet views.
+	 */
+	@Benchmark
+	public final void moveAll(final Blackhole blackhole) {
+		// Backwards, so bullets started over are not moved twice.
+		for (int i = this.moved.getCount() - 1; i >= 0; i--) {
+			int positionY = this.moved.move(i);
+			Bullet bullet = this.moved.getView(i);
+			blackhole.consume(bullet);
+			if (positionY > HEIGHT) {
+				int centerX = bullet.getPositionX() + bullet.getWidth() / 2;
+				this.moved.remove(i);
+				this.moved.add(centerX, 0, SPEED, BulletSystem.ENEMY);
+			}
+		}
+	}
+}
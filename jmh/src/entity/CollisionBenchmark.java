@@ -0,0 +1,105 @@
+package entity;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.Core;
+import engine.GameContext;
+import engine.GameSettings;
+import engine.RandomInputScript;
+
+/**
+ * Benchmarks finding the ships each bullet may collide with, the first step
+ * of the collision checks, with several numbers of bullets and ships.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+	/** Width of the screen. */
+	private static final int WIDTH = 448;
+	/** Height of the screen. */
+	private static final int HEIGHT = 520;
+	/** Places for ships near a bullet, as many as the game screen has. */
+	private static final int MAX_CANDIDATES = 4;
+	/** Seed of the session and bullet positions randomness. */
+	private static final long SEED = 0;
+
+	/** Size of the formation, as width x height. */
+	@Param({ "5x4", "8x7", "10x8" })
+	public String formationSize;
+
+	/** Number of bullets on screen. */
+	@Param({ "4", "32", "256" })
+	public int bulletCount;
+
+	/** Formation checked against. */
+	private EnemyShipFormation formation;
+	/** Bullets checked. */
+	private BulletSystem bullets;
+	/** Ships near the bullet being checked. */
+	private EnemyShip[] candidates;
+
+	/**
+	 * Starts a headless session on the benchmark thread, creates the
+	 * formation and places the bullets at random on the screen.
+	 */
+	@Setup
+	public final void setUp() {
+		String[] size = this.formationSize.split("x");
+
+		Core.setContext(GameContext.createHeadless(SEED,
+				new RandomInputScript(SEED)));
+		this.formation = new EnemyShipFormation(new GameSettings(
+				Integer.parseInt(size[0]), Integer.parseInt(size[1]), 0, 0));
+		this.candidates = new EnemyShip[MAX_CANDIDATES];
+
+		Random random = new Random(SEED);
+		this.bullets = new BulletSystem(this.bulletCount);
+		for (int i = 0; i < this.bulletCount; i++)
+			this.bullets.add(random.nextInt(WIDTH), random.nextInt(HEIGHT),
+					0, BulletSystem.PLAYER);
+	}
+
+	/**
+	 * Ends the headless session.
+	 */
+	@TearDown
+	public final void tearDown() {
+		Core.setContext(null);
+	}
+
+	/**
+	 * Finds the ships near every bullet.
+	 * 
+	 * @return Total number of ships found.
+	 */
+	@Benchmark
+	public final int getShipsNear() {
+		int found = 0;
+		for (int i = 0; i < this.bullets.getCount(); i++)
+			found += this.formation.getShipsNear(this.bullets.getView(i),
+					this.candidates);
+		return found;
+	}
+}
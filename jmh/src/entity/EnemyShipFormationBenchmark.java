@@ -0,0 +1,149 @@
+package entity;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import engine.Clock;
+import engine.Core;
+import engine.GameContext;
+import engine.GameSettings;
+import engine.RandomInputScript;
+import screen.Screen;
+
+/**
+ * Benchmarks the enemy ship formation, in formations of several sizes.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class EnemyShipFormationBenchmark {
+
+	/** Width of the screen. */
+	private static final int WIDTH = 448;
+	/** Height of the screen. */
+	private static final int HEIGHT = 520;
+	/** Frames per second of the screen. */
+	private static final int FPS = 60;
+	/** Seed of the session randomness. */
+	private static final long SEED = 0;
+
+	/** Size of the formation, as width x height. */
+	@Param({ "5x4", "8x7", "10x8" })
+	public String formationSize;
+
+	/** Settings of the formations created. */
+	private GameSettings gameSettings;
+	/** Screen the formations are attached to. */
+	private Screen screen;
+	/** Clock of the session. */
+	private Clock clock;
+	/** Formation updated and iterated over. */
+	private EnemyShipFormation formation;
+
+	/**
+	 * Starts a headless session on the benchmark thread and creates the
+	 * formation.
+	 */
+	@Setup
+	public final void setUp() {
+		String[] size = this.formationSize.split("x");
+		this.gameSettings = new GameSettings(Integer.parseInt(size[0]),
+				Integer.parseInt(size[1]), 0, 0);
+
+		Core.setContext(GameContext.createHeadless(SEED,
+				new RandomInputScript(SEED)));
+		this.screen = new Screen(WIDTH, HEIGHT, FPS);
+		this.clock = Core.getClock();
+		this.formation = new EnemyShipFormation(this.gameSettings);
+		this.formation.attach(this.screen);
+	}
+
+	/**
+	 * Ends the headless session.
+	 */
+	@TearDown
+	public final void tearDown() {
+		Core.setContext(null);
+	}
+
+	/**
+	 * Advances the clock and updates the formation, as done once per update
+	 * of the game screen. The formation keeps moving from side to side.
+	 */
+	@Benchmark
+	public final void update() {
+		this.clock.tick(FPS);
+		this.formation.update();
+	}
+
+	/**
+	 * Iterates over every ship of the formation.
+	 * 
+	 * @param blackhole
+	 *            Consumer of the ships.
+	 */
+	@Benchmark
+	public final void iterator(final Blackhole blackhole) {
+		for (EnemyShip enemyShip : this.formation)
+			blackhole.consume(enemyShip);
+	}
+
+	/**
+	 * Traverses every place of the formation without an iterator.
+	 * 
+	 * @param blackhole
+	 *            Consumer of the ships.
+	 */
+	@Benchmark
+	public final void getShip(final Blackhole blackhole) {
+		for (int i = 0; i < this.formation.getSize(); i++) {
+			EnemyShip enemyShip = this.formation.getShip(i);
+			if (enemyShip != null)
+				blackhole.consume(enemyShip);
+		}
+	}
+
+	/**
+	 * Creates a formation, the baseline of destroyAll.
+	 * 
+	 * @return New formation.
+	 */
+	@Benchmark
+	public final EnemyShipFormation create() {
+		return new EnemyShipFormation(this.gameSettings);
+	}
+
+	/**
+	 * Creates a formation and destroys every ship in it, from the bottom of
+	 * each column up, as the player usually does.
+	 * 
+	 * @return Empty formation.
+	 */
+	@Benchmark
+	public final EnemyShipFormation destroyAll() {
+		EnemyShipFormation destroyed = new EnemyShipFormation(
+				this.gameSettings);
+		for (int i = destroyed.getSize() - 1; i >= 0; i--)
+			destroyed.destroy(destroyed.getShip(i));
+		return destroyed;
+	}
+}
@@ -0,0 +1,123 @@
+package screen;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.Core;
+import engine.GameContext;
+import engine.GameSettings;
+import engine.GameState;
+import engine.InputManager;
+import engine.RandomInputScript;
+import engine.TickClock;
+
+/**
+ * Benchmarks single updates of the game screen, headless, with the player
+ * moving and shooting at random. Each update moves every bullet and checks
+ * it for collisions, so it is measured with several formation sizes and
+ * enemy shooting frequencies. When a level ends, a new one is started.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class GameScreenBenchmark {
+
+	/** Width of the screen. */
+	private static final int WIDTH = 448;
+	/** Height of the screen. */
+	private static final int HEIGHT = 520;
+	/** Frames per second of the screen. */
+	private static final int FPS = 60;
+	/** Speed of the enemies. */
+	private static final int BASE_SPEED = 30;
+	/** Countdown before the ships start moving, skipped. */
+	private static final int START_DELAY = 6000;
+	/** Seed of the session randomness. */
+	private static final long SEED = 0;
+
+	/** Size of the formation, as width x height. */
+	@Param({ "5x4", "8x7", "10x8" })
+	public String formationSize;
+
+	/** Milliseconds between enemy shots. */
+	@Param({ "2000", "250" })
+	public int shootingFrequency;
+
+	/** Settings of the levels played. */
+	private GameSettings gameSettings;
+	/** Clock of the session, advanced by every update. */
+	private TickClock clock;
+	/** Input of the session. */
+	private InputManager inputManager;
+	/** Level being played. */
+	private GameScreen gameScreen;
+
+	/**
+	 * Starts a headless session on the benchmark thread and its first level.
+	 */
+	@Setup
+	public final void setUp() {
+		String[] size = this.formationSize.split("x");
+		this.gameSettings = new GameSettings(Integer.parseInt(size[0]),
+				Integer.parseInt(size[1]), BASE_SPEED,
+				this.shootingFrequency);
+
+		GameContext context = GameContext.createHeadless(SEED,
+				new RandomInputScript(SEED));
+		this.clock = new TickClock();
+		context.setClock(this.clock);
+		Core.setContext(context);
+		this.inputManager = Core.getInputManager();
+		startLevel();
+	}
+
+	/**
+	 * Ends the headless session.
+	 */
+	@TearDown
+	public final void tearDown() {
+		Core.setContext(null);
+	}
+
+	/**
+	 * Runs a single update of the level, as the screen does in each tick.
+	 */
+	@Benchmark
+	public final void update() {
+		if (!this.gameScreen.isRunning)
+			startLevel();
+
+		this.clock.tick(FPS);
+		this.inputManager.update(this.clock.getTicks());
+		this.gameScreen.update();
+	}
+
+	/**
+	 * Starts a new level, skipping its countdown.
+	 */
+	private void startLevel() {
+		this.gameScreen = new GameScreen(new GameState(1, 0, 3, 0, 0),
+				this.gameSettings, false, WIDTH, HEIGHT, FPS);
+		this.gameScreen.initialize();
+		this.gameScreen.isRunning = true;
+		this.clock.advance(START_DELAY);
+	}
+}
@@ -0,0 +1,97 @@
+#!/bin/sh
+#
+# Builds and launches the game with application class data sharing: the
+# classes the game loads at startup are parsed once, by a training run,
+# and kept in an archive the JVM maps on every launch.
+#
+#   launcher/invaders.sh build          Builds build/launcher/invaders.jar.
+#   launcher/invaders.sh train          Builds, runs the training and
+#                                       creates the class archive.
+#   launcher/invaders.sh [run]          Plays, with the archive if trained.
+#   launcher/invaders.sh benchmark [n] [headless]
+#                                       Times launching up to the title
+#                                       screen n times, 5 if not given,
+#                                       with and without the archive.
+#
+# The archive only works with the JVM that created it and the same jar,
+# so train again after rebuilding or updating Java. The benchmark shows
+# the title screen on the display, or with headless draws it offscreen,
+# for machines without one.
+
+set -e
+
+cd "$(dirname "$0")/.."
+BUILD=build/launcher
+JAR=invaders.jar
+CLASS_LIST=classes.lst
+ARCHIVE=invaders.jsa
+
+build() {
+	rm -rf "$BUILD/classes"
+	mkdir -p "$BUILD/classes"
+	javac -d "$BUILD/classes" $(find src -name '*.java')
+	jar --create --file "$BUILD/$JAR" --main-class engine.Core \
+		-C "$BUILD/classes" . -C res .
+}
+
+train() {
+	build
+	cd "$BUILD"
+	rm -f "$CLASS_LIST" "$ARCHIVE"
+	java -Xshare:off -XX:DumpLoadedClassList="$CLASS_LIST" -cp "$JAR" \
+		screen.StartupTraining
+	java -Xshare:dump -XX:SharedClassListFile="$CLASS_LIST" \
+		-XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR"
+	echo "Archived $(wc -l < "$CLASS_LIST") classes in $BUILD/$ARCHIVE."
+}
+
+run() {
+	cd "$BUILD"
+	if [ -f "$ARCHIVE" ]; then
+		exec java -Xshare:auto -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR" \
+			engine.Core
+	fi
+	exec java -cp "$JAR" engine.Core
+}
+
+# Prints the milliseconds from launch to the first frame of each run, and
+# their mean, given the JVM options to launch with.
+time_to_title() {
+	runs=$1
+	shift
+	for i in $(seq "$runs"); do
+		java "$@" -Dinvaders.exitAfterFirstFrame=true -cp "$JAR" \
+			engine.Core 2>&1 \
+			| sed -n 's/.*First frame shown .*, \([0-9]*\) ms after launch.*/\1/p'
+	done | awk '{ print "  " $1 " ms"; total += $1 }
+		END { if (NR > 0) printf "  mean %.1f ms\n", total / NR }'
+}
+
+benchmark() {
+	runs=${1:-5}
+	headless=
+	if [ "$2" = headless ]; then
+		headless=-Djava.awt.headless=true
+	fi
+	if [ ! -f "$BUILD/$ARCHIVE" ]; then
+		echo "No class archive, run train first." >&2
+		exit 1
+	fi
+	cd "$BUILD"
+	echo "Time to title screen, default class sharing:"
+	time_to_title "$runs" $headless -Xshare:auto
+	echo "Time to title screen, with the class archive:"
+	time_to_title "$runs" $headless -Xshare:on \
+		-XX:SharedArchiveFile="$ARCHIVE"
+}
+
+case "${1:-run}" in
+	build) build ;;
+	train) train ;;
+	run) run ;;
+	benchmark) benchmark "$2" "$3" ;;
+	*)
+		echo "Usage: $0 [build|train|run|benchmark [runs] [headless]]" >&2
+		exit 1
+		;;
+esac
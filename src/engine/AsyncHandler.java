@@ -0,0 +1,159 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Log handler that hands records to other handlers on a background thread,
+ * so logging never waits for the disk or the console. Records are kept in
+ * a bounded queue, and dropped when it is full instead of waiting.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class AsyncHandler extends Handler {
+
+	/** Maximum number of records written at once. */
+	private static final int BATCH_SIZE = 64;
+	/** Milliseconds between checks for the handler being closed. */
+	private static final long POLL_INTERVAL = 100;
+
+	/** Records waiting to be written. */
+	private BlockingQueue<LogRecord> queue;
+	/** Handlers the records are written to. */
+	private Handler[] targets;
+	/** Thread writing the records. */
+	private Thread writer;
+	/** Number of records dropped because the queue was full. */
+	private AtomicLong dropped;
+	/** Checks if the handler has been closed. */
+	private volatile boolean closed;
+
+	/**
+	 * Constructor, starts the writing thread.
+	 * 
+	 * @param capacity
+	 *            Maximum number of records waiting to be written.
+	 * @param targets
+	 *            Handlers to write the records to.
+	 */
+	public AsyncHandler(final int capacity, final Handler... targets) {
+		this.queue = new ArrayBlockingQueue<LogRecord>(capacity);
+		this.targets = targets.clone();
+		this.dropped = new AtomicLong();
+		this.closed = false;
+
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				write();
+			}
+		}, "log-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Queues a record to be written, or drops it if the queue is full.
+	 * 
+	 * @param logRecord
+	 *            Record to write.
+	 */
+	@Override
+	public final void publish(final LogRecord logRecord) {
+		if (this.closed || !isLoggable(logRecord))
+			return;
+		if (!this.queue.offer(logRecord))
+			this.dropped.incrementAndGet();
+	}
+
+	/**
+	 * Does nothing, records are flushed after each batch is written.
+	 */
+	@Override
+	public final void flush() {
+
+	}
+
+	/**
+	 * Writes the records still queued and closes the target handlers.
+	 */
+	@Override
+	public final void close() {
+		if (this.closed)
+			return;
+		this.closed = true;
+
+		try {
+			this.writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		List<LogRecord> batch = new ArrayList<LogRecord>();
+		this.queue.drainTo(batch);
+		writeBatch(batch);
+
+		for (Handler target : this.targets)
+			target.close();
+	}
+
+	/**
+	 * Getter for the number of records dropped because the queue was full.
+	 * 
+	 * @return Dropped records.
+	 */
+	public final long getDroppedCount() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Writes batches of queued records until the handler is closed.
+	 */
+	private void write() {
+		List<LogRecord> batch = new ArrayList<LogRecord>(BATCH_SIZE);
+
+		while (!this.closed) {
+			try {
+				LogRecord first = this.queue.poll(POLL_INTERVAL,
+						TimeUnit.MILLISECONDS);
+				if (first == null)
+					continue;
+
+				batch.add(first);
+				this.queue.drainTo(batch, BATCH_SIZE - 1);
+				writeBatch(batch);
+				batch.clear();
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Writes a batch of records to every target handler and flushes them,
+	 * reporting the records dropped since the last batch.
+	 * 
+	 * @param batch
+	 *            Records to write.
+	 */
+	private void writeBatch(final List<LogRecord> batch) {
+		long droppedCount = this.dropped.getAndSet(0);
+		if (droppedCount > 0)
+			batch.add(new LogRecord(Level.WARNING, droppedCount
+					+ " log records dropped, logging too fast."));
+
+		for (Handler target : this.targets) {
+			for (LogRecord logRecord : batch)
+				target.publish(logRecord);
+			target.flush();
+		}
+	}
+}
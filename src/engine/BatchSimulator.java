@@ -0,0 +1,147 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Simulates many independent games in parallel, each one in its own
+ * headless session, and aggregates their outcomes.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public final class BatchSimulator {
+
+	/**
+	 * Simulates a batch of games with random input scripts and prints the
+	 * aggregated results.
+	 * 
+	 * @param args
+	 *            Program args: number of games, number of threads and first
+	 *            seed, optional.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the games.
+	 * @throws ExecutionException
+	 *             If a game fails.
+	 */
+	public static void main(final String[] args) throws InterruptedException,
+			ExecutionException {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1])
+				: Runtime.getRuntime().availableProcessors();
+		long firstSeed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			long start = System.nanoTime();
+			List<SimulationResult> results = simulate(pool, firstSeed, games,
+					Core.getGameSettings());
+			long nanos = System.nanoTime() - start;
+
+			printSummary(results, threads, nanos);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Constructor, not called.
+	 */
+	private BatchSimulator() {
+
+	}
+
+	/**
+	 * Simulates a batch of games, one for each seed, with random input
+	 * scripts.
+	 * 
+	 * @param pool
+	 *            Pool of threads to run the games on.
+	 * @param firstSeed
+	 *            Seed of the first game, the rest use the following ones.
+	 * @param games
+	 *            Number of games to simulate.
+	 * @param levels
+	 *            Difficulty settings of each level.
+	 * @return Outcome of each game, in seed order.
+	 * @throws InterruptedException
+	 *             If interrupted while waiting for the games.
+	 * @throws ExecutionException
+	 *             If a game fails.
+	 */
+	public static List<SimulationResult> simulate(final ForkJoinPool pool,
+			final long firstSeed, final int games,
+			final List<GameSettings> levels) throws InterruptedException,
+			ExecutionException {
+		List<Callable<SimulationResult>> tasks =
+				new ArrayList<Callable<SimulationResult>>(games);
+		for (int i = 0; i < games; i++) {
+			final long seed = firstSeed + i;
+			tasks.add(new Callable<SimulationResult>() {
+				@Override
+				public SimulationResult call() {
+					return Simulator.simulate(seed,
+							new RandomInputScript(seed), levels);
+				}
+			});
+		}
+
+		List<SimulationResult> results =
+				new ArrayList<SimulationResult>(games);
+		for (Future<SimulationResult> future : pool.invokeAll(tasks))
+			results.add(future.get());
+		return results;
+	}
+
+	/**
+	 * Prints the aggregated outcome of a batch of games.
+	 * 
+	 * @param results
+	 *            Outcome of each game.
+	 * @param threads
+	 *            Number of threads the games ran on.
+	 * @param nanos
+	 *            Real time the batch took, in nanoseconds.
+	 */
+	private static void printSummary(final List<SimulationResult> results,
+			final int threads, final long nanos) {
+		long totalScore = 0;
+		long totalLevel = 0;
+		long totalLives = 0;
+		long totalBulletsShot = 0;
+		long totalShipsDestroyed = 0;
+		long totalTicks = 0;
+		int minScore = Integer.MAX_VALUE;
+		int maxScore = Integer.MIN_VALUE;
+
+		for (SimulationResult result : results) {
+			GameState gameState = result.getGameState();
+			totalScore += gameState.getScore();
+			totalLevel += gameState.getLevel() - 1;
+			totalLives += gameState.getLivesRemaining();
+			totalBulletsShot += gameState.getBulletsShot();
+			totalShipsDestroyed += gameState.getShipsDestroyed();
+			totalTicks += result.getTicks();
+			minScore = Math.min(minScore, gameState.getScore());
+			maxScore = Math.max(maxScore, gameState.getScore());
+		}
+
+		int games = Math.max(1, results.size());
+		double seconds = nanos / 1000000000.0;
+		System.out.println(String.format("%d games on %d threads in %.2f s "
+				+ "(%.0f games/s, %.0f frames/s)", results.size(), threads,
+				seconds, results.size() / seconds, totalTicks / seconds));
+		System.out.println(String.format("score: mean %.1f, min %d, max %d",
+				(double) totalScore / games, minScore, maxScore));
+		System.out.println(String.format("mean level %.2f, lives %.2f, "
+				+ "bullets shot %.1f, ships destroyed %.1f, accuracy %.2f%%",
+				(double) totalLevel / games, (double) totalLives / games,
+				(double) totalBulletsShot / games,
+				(double) totalShipsDestroyed / games,
+				100.0 * totalShipsDestroyed / Math.max(1, totalBulletsShot)));
+	}
+}
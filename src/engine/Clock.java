@@ -0,0 +1,32 @@
+package engine;
+
+/**
+ * Source of time for the game logic.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public interface Clock {
+
+	/**
+	 * Returns the current time.
+	 * 
+	 * @return Current time, in milliseconds.
+	 */
+	long getTimeMillis();
+
+	/**
+	 * Signals the start of a new update of the game logic.
+	 * 
+	 * @param ticksPerSecond
+	 *            Number of updates run per second.
+	 */
+	void tick(int ticksPerSecond);
+
+	/**
+	 * Returns the number of updates signaled to the clock.
+	 * 
+	 * @return Updates elapsed.
+	 */
+	long getTicks();
+}
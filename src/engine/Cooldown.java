@@ -1,5 +1,7 @@
 package engine;
 
+import java.util.Random;
+
 /**
  * Imposes a cooldown period between two actions.
  * 
@@ -16,34 +18,52 @@ public class Cooldown {
 	private int duration;
 	/** Beginning time. */
 	private long time;
+	/** Checks if the cooldown has been started. */
+	private boolean started;
+	/** Clock the time is measured with. */
+	private Clock clock;
+	/** Source of the duration variations. */
+	private Random random;
 
 	/**
 	 * Constructor, established the time until the action can be performed
 	 * again.
 	 * 
+	 * @param clock
+	 *            Clock the time is measured with.
 	 * @param milliseconds
 	 *            Time until cooldown period is finished.
 	 */
-	protected Cooldown(final int milliseconds) {
+	protected Cooldown(final Clock clock, final int milliseconds) {
+		this.clock = clock;
 		this.milliseconds = milliseconds;
 		this.variance = 0;
 		this.duration = milliseconds;
 		this.time = 0;
+		this.started = false;
 	}
 
 	/**
 	 * Constructor, established the time until the action can be performed
 	 * again, with a variation of +/- variance.
 	 * 
+	 * @param clock
+	 *            Clock the time is measured with.
+	 * @param random
+	 *            Source of the duration variations.
 	 * @param milliseconds
 	 *            Time until cooldown period is finished.
 	 * @param variance
 	 *            Variance in the cooldown period.
 	 */
-	protected Cooldown(final int milliseconds, final int variance) {
+	protected Cooldown(final Clock clock, final Random random,
+			final int milliseconds, final int variance) {
+		this.clock = clock;
+		this.random = random;
 		this.milliseconds = milliseconds;
 		this.variance = variance;
 		this.time = 0;
+		this.started = false;
 	}
 
 	/**
@@ -52,8 +72,8 @@ public class Cooldown {
 	 * @return Cooldown state.
 	 */
 	public final boolean checkFinished() {
-		if ((this.time == 0)
-				|| this.time + this.duration < System.currentTimeMillis())
+		if (!this.started
+				|| this.time + this.duration < this.clock.getTimeMillis())
 			return true;
 		return false;
 	}
@@ -62,10 +82,11 @@ public class Cooldown {
 	 * Restarts the cooldown.
 	 */
 	public final void reset() {
-		this.time = System.currentTimeMillis();
+		this.time = this.clock.getTimeMillis();
+		this.started = true;
 		if (this.variance != 0)
 			this.duration = (this.milliseconds - this.variance)
-					+ (int) (Math.random()
+					+ (int) (this.random.nextDouble()
 							* (this.milliseconds + this.variance));
 	}
 }
@@ -1,13 +1,22 @@
 package engine;
 
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import screen.GameScreen;
 import screen.HighScoreScreen;
 import screen.ScoreScreen;
@@ -60,8 +69,6 @@ public final class Core {
 	
 	/** Frame to draw the screen on. */
 	private static Frame frame;
-	/** Screen currently shown. */
-	private static Screen currentScreen;
 	/** Difficulty settings list. */
 	private static List<GameSettings> gameSettings;
 	/** Application logger. */
@@ -71,7 +78,33 @@ public final class Core {
 	private static Handler fileHandler;
 	/** Logger handler for printing to console. */
 	private static ConsoleHandler consoleHandler;
+	/** Maximum number of log records waiting to be written. */
+	private static final int LOG_QUEUE_CAPACITY = 1024;
+	/** Logger handler writing to disk and console off the game loop. */
+	private static AsyncHandler asyncHandler;
+	/** Checks if the reports have been written and the files closed. */
+	private static boolean shutDown;
+	/** Property to exit once the first frame is shown, to time startup. */
+	private static final String EXIT_AFTER_FIRST_FRAME =
+			"invaders.exitAfterFirstFrame";
+	/** Context of the application's own game session. */
+	private static final GameContext DEFAULT_CONTEXT = new GameContext(
+			new TickClock(), new Random(), InputManager.getInstance(), LOGGER,
+			false);
+	/** Context of the game session running on each thread, if not default. */
+	private static final ThreadLocal<GameContext> CONTEXT =
+			new ThreadLocal<GameContext>();
 
+	static {
+		gameSettings = new ArrayList<GameSettings>();
+		gameSettings.add(SETTINGS_LEVEL_1);
+		gameSettings.add(SETTINGS_LEVEL_2);
+		gameSettings.add(SETTINGS_LEVEL_3);
+		gameSettings.add(SETTINGS_LEVEL_4);
+		gameSettings.add(SETTINGS_LEVEL_5);
+		gameSettings.add(SETTINGS_LEVEL_6);
+		gameSettings.add(SETTINGS_LEVEL_7);
+	}
 
 	/**
 	 * Test implementation.
@@ -89,31 +122,51 @@ public final class Core {
 			consoleHandler = new ConsoleHandler();
 			consoleHandler.setFormatter(new MinimalFormatter());
 
-			LOGGER.addHandler(fileHandler);
-			LOGGER.addHandler(consoleHandler);
-			LOGGER.setLevel(Level.ALL);
+			asyncHandler = new AsyncHandler(LOG_QUEUE_CAPACITY, fileHandler,
+					consoleHandler);
+			LOGGER.addHandler(asyncHandler);
+			LOGGER.setLevel(Level.INFO);
+
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				@Override
+				public void run() {
+					shutDown();
+				}
+			});
 
 		} catch (Exception e) {
 			// TODO handle exception
 			e.printStackTrace();
 		}
 
+		try {
+			DEFAULT_CONTEXT.setJournal(new EventJournal(Paths.get("events")));
+		} catch (IOException e) {
+			LOGGER.warning("Couldn't create event journal!");
+		}
+
+		FrameTelemetry telemetry = new FrameTelemetry(
+				Paths.get("telemetry.csv"), Paths.get("telemetry.jsonl"));
+		DEFAULT_CONTEXT.setTelemetry(telemetry);
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(
+					telemetry, new ObjectName("engine:type=FrameTelemetry"));
+		} catch (JMException e) {
+			LOGGER.warning("Couldn't register frame telemetry MBean!");
+		}
+
+		// Resources load in the background while the frame is created.
+		DrawManager drawManager = DrawManager.getInstance();
+		if (Boolean.getBoolean(EXIT_AFTER_FIRST_FRAME))
+			showFirstFrame(drawManager);
 		frame = new Frame(WIDTH, HEIGHT);
-		DrawManager.getInstance().setFrame(frame);
+		drawManager.setFrame(frame);
 		int width = frame.getWidth();
 		int height = frame.getHeight();
 
-		gameSettings = new ArrayList<GameSettings>();
-		gameSettings.add(SETTINGS_LEVEL_1);
-		gameSettings.add(SETTINGS_LEVEL_2);
-		gameSettings.add(SETTINGS_LEVEL_3);
-		gameSettings.add(SETTINGS_LEVEL_4);
-		gameSettings.add(SETTINGS_LEVEL_5);
-		gameSettings.add(SETTINGS_LEVEL_6);
-		gameSettings.add(SETTINGS_LEVEL_7);
-		
 		GameState gameState;
 
+		Screen currentScreen;
 		int returnCode = 1;
 		do {
 			gameState = new GameState(1, 0, MAX_LIVES, 0, 0);
@@ -129,30 +182,7 @@ public final class Core {
 				break;
 			case 2:
 				// Game & score.
-				do {
-					// One extra live every few levels.
-					boolean bonusLife = gameState.getLevel()
-							% EXTRA_LIFE_FRECUENCY == 0
-							&& gameState.getLivesRemaining() < MAX_LIVES;
-					
-					currentScreen = new GameScreen(gameState,
-							gameSettings.get(gameState.getLevel() - 1),
-							bonusLife, width, height, FPS);
-					LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
-							+ " game screen at " + FPS + " fps.");
-					frame.setScreen(currentScreen);
-					LOGGER.info("Closing game screen.");
-
-					gameState = ((GameScreen) currentScreen).getGameState();
-
-					gameState = new GameState(gameState.getLevel() + 1,
-							gameState.getScore(),
-							gameState.getLivesRemaining(),
-							gameState.getBulletsShot(),
-							gameState.getShipsDestroyed());
-
-				} while (gameState.getLivesRemaining() > 0
-						&& gameState.getLevel() <= NUM_LEVELS);
+				gameState = playRecordedGame(width, height);
 
 				LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
 						+ " score screen at " + FPS + " fps, with a score of "
@@ -178,11 +208,55 @@ public final class Core {
 
 		} while (returnCode != 0);
 
-		fileHandler.flush();
-		fileHandler.close();
+		shutDown();
 		System.exit(0);
 	}
 
+	/**
+	 * Shows the title screen once and exits, to time how long the game takes
+	 * to show its first frame. Without a display, the title screen is drawn
+	 * offscreen instead.
+	 * 
+	 * @param drawManager
+	 *            Draw manager, loading the resources.
+	 */
+	private static void showFirstFrame(final DrawManager drawManager) {
+		int width = WIDTH;
+		int height = HEIGHT;
+		if (!GraphicsEnvironment.isHeadless()) {
+			frame = new Frame(WIDTH, HEIGHT);
+			drawManager.setFrame(frame);
+			width = frame.getWidth();
+			height = frame.getHeight();
+		}
+
+		Screen titleScreen = new TitleScreen(width, height, FPS);
+		titleScreen.initialize();
+		titleScreen.drawOnce();
+		shutDown();
+		System.exit(0);
+	}
+
+	/**
+	 * Writes the reports, including the telemetry of the screen still
+	 * running, if any, and closes the files kept while playing. Runs when
+	 * the player exits from the menu and from the shutdown hook, which is
+	 * the only way out when the window is closed, so only the first call
+	 * does anything.
+	 */
+	private static synchronized void shutDown() {
+		if (shutDown)
+			return;
+		shutDown = true;
+
+		DrawManager.getInstance().logInputLatencies();
+		DEFAULT_CONTEXT.getTelemetry().endScreen();
+		getFileManager().flushHighScores();
+		DEFAULT_CONTEXT.getJournal().close();
+		if (asyncHandler != null)
+			asyncHandler.close();
+	}
+
 	/**
 	 * Constructor, not called.
 	 */
@@ -190,21 +264,201 @@ public final class Core {
 
 	}
 
+	/**
+	 * Plays a whole game, level after level, until the player runs out of
+	 * lives or all levels are cleared.
+	 * 
+	 * @param width
+	 *            Screen width.
+	 * @param height
+	 *            Screen height.
+	 * @param levels
+	 *            Difficulty settings of each level.
+	 * @return Final game state.
+	 */
+	private static GameState playGame(final int width, final int height,
+			final List<GameSettings> levels) {
+		Logger logger = getLogger();
+		GameState gameState = new GameState(1, 0, MAX_LIVES, 0, 0);
+		GameScreen currentScreen;
+
+		do {
+			// One extra live every few levels.
+			boolean bonusLife = gameState.getLevel()
+					% EXTRA_LIFE_FRECUENCY == 0
+					&& gameState.getLivesRemaining() < MAX_LIVES;
+			
+			currentScreen = new GameScreen(gameState,
+					levels.get(gameState.getLevel() - 1),
+					bonusLife, width, height, FPS);
+			logger.info("Starting " + WIDTH + "x" + HEIGHT
+					+ " game screen at " + FPS + " fps.");
+			if (isHeadless()) {
+				currentScreen.initialize();
+				currentScreen.run();
+			} else
+				frame.setScreen(currentScreen);
+			logger.info("Closing game screen.");
+
+			gameState = currentScreen.getGameState();
+
+			gameState = new GameState(gameState.getLevel() + 1,
+					gameState.getScore(),
+					gameState.getLivesRemaining(),
+					gameState.getBulletsShot(),
+					gameState.getShipsDestroyed());
+
+		} while (gameState.getLivesRemaining() > 0
+				&& gameState.getLevel() <= Math.min(NUM_LEVELS,
+						levels.size()));
+
+		return gameState;
+	}
+
+	/**
+	 * Plays a whole game, recording the player's input so the game can be
+	 * replayed later. The game starts with a fresh clock and a new seed, and
+	 * the recording is saved once the game ends.
+	 * 
+	 * @param width
+	 *            Screen width.
+	 * @param height
+	 *            Screen height.
+	 * @return Final game state.
+	 */
+	private static GameState playRecordedGame(final int width,
+			final int height) {
+		long seed = System.nanoTime();
+		setClock(new TickClock());
+		setSeed(seed);
+
+		InputRecording recording = new InputRecording(seed, width, height,
+				gameSettings);
+		getInputManager().setRecording(recording);
+		GameState gameState;
+		try {
+			gameState = playGame(width, height, gameSettings);
+		} finally {
+			getInputManager().setRecording(null);
+		}
+
+		recording.finish(gameState);
+		try {
+			recording.save(Paths.get("replay"));
+		} catch (IOException e) {
+			LOGGER.warning("Couldn't save replay!");
+		}
+		return gameState;
+	}
+
+	/**
+	 * Plays a whole game in the current headless context, running the
+	 * screens as fast as possible.
+	 * 
+	 * @param levels
+	 *            Difficulty settings of each level.
+	 * @return Final game state.
+	 */
+	static GameState playHeadlessGame(final List<GameSettings> levels) {
+		return playGame(WIDTH, HEIGHT, levels);
+	}
+
+	/**
+	 * Plays a whole game in the current headless context, running the
+	 * screens as fast as possible.
+	 * 
+	 * @param width
+	 *            Screen width.
+	 * @param height
+	 *            Screen height.
+	 * @param levels
+	 *            Difficulty settings of each level.
+	 * @return Final game state.
+	 */
+	static GameState playHeadlessGame(final int width, final int height,
+			final List<GameSettings> levels) {
+		return playGame(width, height, levels);
+	}
+
+	/**
+	 * Returns the difficulty settings of every level of a normal game.
+	 * 
+	 * @return Difficulty settings list.
+	 */
+	public static List<GameSettings> getGameSettings() {
+		return Collections.unmodifiableList(gameSettings);
+	}
+
+	/**
+	 * Returns the context of the game session running on the current
+	 * thread.
+	 * 
+	 * @return Current game context.
+	 */
+	public static GameContext getContext() {
+		GameContext context = CONTEXT.get();
+		if (context == null)
+			return DEFAULT_CONTEXT;
+		return context;
+	}
+
+	/**
+	 * Sets the context of the game session running on the current thread.
+	 * 
+	 * @param context
+	 *            Context to use, null to go back to the default one.
+	 */
+	public static void setContext(final GameContext context) {
+		if (context == null)
+			CONTEXT.remove();
+		else
+			CONTEXT.set(context);
+	}
+
+	/**
+	 * Checks if screens run without a frame, as fast as possible.
+	 * 
+	 * @return True if running headless.
+	 */
+	public static boolean isHeadless() {
+		return getContext().isHeadless();
+	}
+
 	/**
 	 * Controls access to the logger.
 	 * 
 	 * @return Application logger.
 	 */
 	public static Logger getLogger() {
-		return LOGGER;
+		return getContext().getLogger();
+	}
+
+	/**
+	 * Controls access to the gameplay event journal.
+	 * 
+	 * @return Journal of the current session, disabled if not recording.
+	 */
+	public static EventJournal getJournal() {
+		return getContext().getJournal();
+	}
+
+	/**
+	 * Controls access to the frame telemetry.
+	 * 
+	 * @return Telemetry of the current session, disabled if not measuring.
+	 */
+	public static FrameTelemetry getTelemetry() {
+		return getContext().getTelemetry();
 	}
 
 	/**
 	 * Controls access to the drawing manager.
 	 * 
-	 * @return Application draw manager.
+	 * @return Application draw manager, null when running headless.
 	 */
 	public static DrawManager getDrawManager() {
+		if (isHeadless())
+			return null;
 		return DrawManager.getInstance();
 	}
 
@@ -214,7 +468,7 @@ public final class Core {
 	 * @return Application input manager.
 	 */
 	public static InputManager getInputManager() {
-		return InputManager.getInstance();
+		return getContext().getInputManager();
 	}
 
 	/**
@@ -234,7 +488,7 @@ public final class Core {
 	 * @return A new cooldown.
 	 */
 	public static Cooldown getCooldown(final int milliseconds) {
-		return new Cooldown(milliseconds);
+		return new Cooldown(getClock(), milliseconds);
 	}
 
 	/**
@@ -248,6 +502,48 @@ public final class Core {
 	 */
 	public static Cooldown getVariableCooldown(final int milliseconds,
 			final int variance) {
-		return new Cooldown(milliseconds, variance);
+		GameContext context = getContext();
+		return new Cooldown(context.getClock(), context.getRandom(),
+				milliseconds, variance);
+	}
+
+	/**
+	 * Controls access to the game logic clock.
+	 * 
+	 * @return Clock used by the game logic.
+	 */
+	public static Clock getClock() {
+		return getContext().getClock();
+	}
+
+	/**
+	 * Replaces the game logic clock. Only affects cooldowns created
+	 * afterwards.
+	 * 
+	 * @param newClock
+	 *            Clock to use.
+	 */
+	public static void setClock(final Clock newClock) {
+		getContext().setClock(newClock);
+	}
+
+	/**
+	 * Controls access to the game logic source of randomness.
+	 * 
+	 * @return Random number generator used by the game logic.
+	 */
+	public static Random getRandom() {
+		return getContext().getRandom();
+	}
+
+	/**
+	 * Seeds the game logic source of randomness, making the following game
+	 * reproducible.
+	 * 
+	 * @param seed
+	 *            Seed to use.
+	 */
+	public static void setSeed(final long seed) {
+		getRandom().setSeed(seed);
 	}
 }
\ No newline at end of file
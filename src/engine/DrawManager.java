@@ -5,11 +5,21 @@ import java.awt.Font;
 import java.awt.FontFormatException;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
 import screen.Screen;
@@ -24,6 +34,15 @@ import entity.Ship;
  */
 public final class DrawManager {
 
+	/** Nanoseconds in a millisecond. */
+	private static final double NANOS_PER_MILLI = 1000000.0;
+	/** Threads loading the resources, one for sprites and one for fonts. */
+	private static final int LOADER_THREADS = 2;
+	/** Point size of the regular font. */
+	private static final float REGULAR_FONT_SIZE = 14f;
+	/** Point size of the big font. */
+	private static final float BIG_FONT_SIZE = 24f;
+
 	/** Singleton instance of the class. */
 	private static DrawManager instance;
 	/** Current frame. */
@@ -32,8 +51,6 @@ public final class DrawManager {
 	private static FileManager fileManager;
 	/** Application logger. */
 	private static Logger logger;
-	/** Graphics context. */
-	private static Graphics graphics;
 	/** Buffer Graphics. */
 	private static Graphics backBufferGraphics;
 	/** Buffer image. */
@@ -49,6 +66,32 @@ public final class DrawManager {
 
 	/** Sprite types mapped to their images. */
 	private static Map<SpriteType, boolean[][]> spriteMap;
+	/** Sprite types and colors mapped to their pre-rendered images. */
+	private static Map<SpriteType, Map<Color, BufferedImage>> spriteCache =
+			new EnumMap<SpriteType, Map<Color, BufferedImage>>(
+					SpriteType.class);
+	/** Size in screen pixels of each sprite pixel. */
+	private static int spriteScale = 2;
+	/** Ship used to draw the remaining lives. */
+	private static Ship livesShip;
+	/**
+	 * Nanoseconds from key event to frame on screen, by type of screen.
+	 * Guarded by the map itself, as it is logged on exit from any thread.
+	 */
+	private static Map<Class<? extends Screen>, Histogram> inputLatencies =
+			new LinkedHashMap<Class<? extends Screen>, Histogram>();
+	/** Checks if the debug overlay is drawn. */
+	private static boolean debugOverlay;
+	/** Entities drawn since the drawing started. */
+	private static int entitiesDrawn;
+	/** Completed when the sprites are loaded. */
+	private static CompletableFuture<Void> spritesLoaded;
+	/** Completed when the fonts are loaded. */
+	private static CompletableFuture<Void> fontsLoaded;
+	/** Moment the resources started loading, in nanoseconds. */
+	private static long loadStartTime;
+	/** Checks if a frame has been shown yet. */
+	private static boolean firstFrameShown;
 
 	/** Sprite types. */
 	public static enum SpriteType {
@@ -79,42 +122,104 @@ public final class DrawManager {
 	};
 
 	/**
-	 * Private constructor.
+	 * Private constructor, starts loading the resources in the background.
 	 */
 	private DrawManager() {
 		fileManager = Core.getFileManager();
 		logger = Core.getLogger();
 		logger.info("Started loading resources.");
+		loadStartTime = System.nanoTime();
+		spriteMap = createSpriteMap();
+
+		ExecutorService loader = Executors.newFixedThreadPool(LOADER_THREADS,
+				new ThreadFactory() {
+					/** Number of threads created. */
+					private int threadCount;
+
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						Thread thread = new Thread(runnable, "resource-loader-"
+								+ ++this.threadCount);
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		spritesLoaded = CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				loadSprites();
+			}
+		}, loader);
+		fontsLoaded = CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				loadFonts();
+			}
+		}, loader);
+		loader.shutdown();
+	}
 
+	/**
+	 * Loads the sprites, on a loader thread.
+	 */
+	private static void loadSprites() {
 		try {
-			spriteMap = new LinkedHashMap<SpriteType, boolean[][]>();
-
-			spriteMap.put(SpriteType.Ship, new boolean[13][8]);
-			spriteMap.put(SpriteType.ShipDestroyed, new boolean[13][8]);
-			spriteMap.put(SpriteType.Bullet, new boolean[3][5]);
-			spriteMap.put(SpriteType.EnemyBullet, new boolean[3][5]);
-			spriteMap.put(SpriteType.EnemyShipA1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipA2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipB1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipB2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipC1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipC2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipSpecial, new boolean[16][7]);
-			spriteMap.put(SpriteType.Explosion, new boolean[13][7]);
-
 			fileManager.loadSprite(spriteMap);
-			logger.info("Finished loading the sprites.");
-
-			// Font loading.
-			fontRegular = fileManager.loadFont(14f);
-			fontBig = fileManager.loadFont(24f);
-			logger.info("Finished loading the fonts.");
-
+			logger.info(String.format("Finished loading the sprites in "
+					+ "%.1f ms.", (System.nanoTime() - loadStartTime)
+					/ NANOS_PER_MILLI));
 		} catch (IOException e) {
 			logger.warning("Loading failed.");
+		}
+	}
+
+	/**
+	 * Loads the font and derives every size used from it, on a loader
+	 * thread. Without a font, a default one is used.
+	 */
+	private static void loadFonts() {
+		Font font;
+		try {
+			font = fileManager.loadFont();
+		} catch (IOException e) {
+			logger.warning("Font loading failed, using a default font. "
+					+ e.getMessage());
+			font = new Font(Font.MONOSPACED, Font.PLAIN, 1);
 		} catch (FontFormatException e) {
-			logger.warning("Font formating failed.");
+			logger.warning("Font formating failed, using a default font.");
+			font = new Font(Font.MONOSPACED, Font.PLAIN, 1);
 		}
+
+		fontRegular = font.deriveFont(REGULAR_FONT_SIZE);
+		fontBig = font.deriveFont(BIG_FONT_SIZE);
+		logger.info(String.format("Finished loading the fonts in %.1f ms.",
+				(System.nanoTime() - loadStartTime) / NANOS_PER_MILLI));
+	}
+
+	/**
+	 * Creates an empty image of the right size for every sprite, in the
+	 * order they are stored in the text sprites.
+	 * 
+	 * @return Mapping of sprite type and empty boolean matrix.
+	 */
+	static Map<SpriteType, boolean[][]> createSpriteMap() {
+		Map<SpriteType, boolean[][]> sprites =
+				new LinkedHashMap<SpriteType, boolean[][]>();
+
+		sprites.put(SpriteType.Ship, new boolean[13][8]);
+		sprites.put(SpriteType.ShipDestroyed, new boolean[13][8]);
+		sprites.put(SpriteType.Bullet, new boolean[3][5]);
+		sprites.put(SpriteType.EnemyBullet, new boolean[3][5]);
+		sprites.put(SpriteType.EnemyShipA1, new boolean[12][8]);
+		sprites.put(SpriteType.EnemyShipA2, new boolean[12][8]);
+		sprites.put(SpriteType.EnemyShipB1, new boolean[12][8]);
+		sprites.put(SpriteType.EnemyShipB2, new boolean[12][8]);
+		sprites.put(SpriteType.EnemyShipC1, new boolean[12][8]);
+		sprites.put(SpriteType.EnemyShipC2, new boolean[12][8]);
+		sprites.put(SpriteType.EnemyShipSpecial, new boolean[16][7]);
+		sprites.put(SpriteType.Explosion, new boolean[13][7]);
+
+		return sprites;
 	}
 
 	/**
@@ -122,7 +227,7 @@ public final class DrawManager {
 	 * 
 	 * @return Shared instance of DrawManager.
 	 */
-	protected static DrawManager getInstance() {
+	protected static synchronized DrawManager getInstance() {
 		if (instance == null)
 			instance = new DrawManager();
 		return instance;
@@ -136,6 +241,102 @@ public final class DrawManager {
 	 */
 	public void setFrame(final Frame currentFrame) {
 		frame = currentFrame;
+		// Cached images are compatible with the previous configuration.
+		invalidateSpriteCache();
+		backBuffer = null;
+	}
+
+	/**
+	 * Changes the size in screen pixels of each sprite pixel, discarding the
+	 * images rendered with the previous size.
+	 * 
+	 * @param scale
+	 *            New sprite scale.
+	 */
+	public void setSpriteScale(final int scale) {
+		if (scale != spriteScale) {
+			spriteScale = scale;
+			invalidateSpriteCache();
+		}
+	}
+
+	/**
+	 * Discards every pre-rendered sprite image, forcing them to be rendered
+	 * again from the sprite map on next use.
+	 */
+	private static void invalidateSpriteCache() {
+		for (Map<Color, BufferedImage> images : spriteCache.values())
+			for (BufferedImage image : images.values())
+				image.flush();
+		spriteCache.clear();
+	}
+
+	/**
+	 * Returns the pre-rendered image of a sprite in the given color,
+	 * rendering it the first time it is requested.
+	 * 
+	 * @param spriteType
+	 *            Sprite to draw.
+	 * @param color
+	 *            Color of the sprite.
+	 * @return Image of the sprite, at the current scale.
+	 */
+	private static BufferedImage getSpriteImage(final SpriteType spriteType,
+			final Color color) {
+		Map<Color, BufferedImage> images = spriteCache.get(spriteType);
+		if (images == null) {
+			images = new HashMap<Color, BufferedImage>();
+			spriteCache.put(spriteType, images);
+		}
+
+		BufferedImage image = images.get(color);
+		if (image == null) {
+			spritesLoaded.join();
+			image = rasterizeSprite(spriteMap.get(spriteType), color);
+			images.put(color, image);
+		}
+		return image;
+	}
+
+	/**
+	 * Renders a sprite into a new image with transparent background.
+	 * 
+	 * @param sprite
+	 *            Sprite pixels, true if lit.
+	 * @param color
+	 *            Color of the lit pixels.
+	 * @return Rendered image.
+	 */
+	private static BufferedImage rasterizeSprite(final boolean[][] sprite,
+			final Color color) {
+		int width = Math.max(1, sprite.length * spriteScale);
+		int height = Math.max(1, (sprite.length > 0 ? sprite[0].length : 0)
+				* spriteScale);
+		BufferedImage image;
+
+		if (frame != null)
+			image = frame.getGraphicsConfiguration().createCompatibleImage(
+					width, height, Transparency.BITMASK);
+		else if (!GraphicsEnvironment.isHeadless()) {
+			GraphicsConfiguration configuration = GraphicsEnvironment
+					.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+					.getDefaultConfiguration();
+			image = configuration.createCompatibleImage(width, height,
+					Transparency.BITMASK);
+		} else
+			image = new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB);
+
+		Graphics imageGraphics = image.getGraphics();
+		imageGraphics.setColor(color);
+		for (int i = 0; i < sprite.length; i++)
+			for (int j = 0; j < sprite[i].length; j++)
+				if (sprite[i][j])
+					imageGraphics.fillRect(i * spriteScale, j * spriteScale,
+							spriteScale, spriteScale);
+		imageGraphics.dispose();
+
+		return image;
 	}
 
 	/**
@@ -146,18 +347,14 @@ public final class DrawManager {
 	 *            Screen to draw in.
 	 */
 	public void initDrawing(final Screen screen) {
-		backBuffer = new BufferedImage(screen.getWidth(), screen.getHeight(),
-				BufferedImage.TYPE_INT_RGB);
-
-		graphics = frame.getGraphics();
-		backBufferGraphics = backBuffer.getGraphics();
+		if (backBuffer == null || backBuffer.getWidth() != screen.getWidth()
+				|| backBuffer.getHeight() != screen.getHeight())
+			createBackBuffer(screen.getWidth(), screen.getHeight());
 
 		backBufferGraphics.setColor(Color.BLACK);
 		backBufferGraphics
 				.fillRect(0, 0, screen.getWidth(), screen.getHeight());
-
-		fontRegularMetrics = backBufferGraphics.getFontMetrics(fontRegular);
-		fontBigMetrics = backBufferGraphics.getFontMetrics(fontBig);
+		entitiesDrawn = 0;
 
 		// drawBorders(screen);
 		// drawGrid(screen);
@@ -170,8 +367,125 @@ public final class DrawManager {
 	 *            Screen to draw on.
 	 */
 	public void completeDrawing(final Screen screen) {
-		graphics.drawImage(backBuffer, frame.getInsets().left,
-				frame.getInsets().top, frame);
+		Histogram inputLatency = getInputLatency(screen);
+		if (debugOverlay)
+			drawDebugOverlay(screen, inputLatency);
+
+		if (frame != null) {
+			FrameTelemetry telemetry = Core.getTelemetry();
+			telemetry.startPhase(FrameTelemetry.Phase.Present);
+			frame.present(backBuffer);
+			telemetry.endPhase(FrameTelemetry.Phase.Present);
+		}
+
+		// Without a frame, the first frame is only drawn offscreen.
+		if (!firstFrameShown) {
+			firstFrameShown = true;
+			logger.info(String.format("First frame shown %.1f ms after "
+					+ "loading started, %d ms after launch.",
+					(System.nanoTime() - loadStartTime) / NANOS_PER_MILLI,
+					ManagementFactory.getRuntimeMXBean().getUptime()));
+		}
+
+		// Time since the oldest key event this frame is the first to show.
+		InputManager inputManager = Core.getInputManager();
+		if (inputManager.hasPendingInput()) {
+			long latency = System.nanoTime()
+					- inputManager.takePendingInputTime();
+			synchronized (inputLatencies) {
+				inputLatency.record(latency);
+			}
+		}
+	}
+
+	/**
+	 * Returns the histogram of input latencies of a type of screen.
+	 * 
+	 * @param screen
+	 *            Screen of the type.
+	 * @return Latencies, in nanoseconds, from key event to frame on screen.
+	 */
+	private static Histogram getInputLatency(final Screen screen) {
+		synchronized (inputLatencies) {
+			Histogram inputLatency = inputLatencies.get(screen.getClass());
+			if (inputLatency == null) {
+				inputLatency = new Histogram();
+				inputLatencies.put(screen.getClass(), inputLatency);
+			}
+			return inputLatency;
+		}
+	}
+
+	/**
+	 * Draws the input latency of the current type of screen.
+	 * 
+	 * @param screen
+	 *            Screen to draw on.
+	 * @param inputLatency
+	 *            Input latencies of the screen type.
+	 */
+	private void drawDebugOverlay(final Screen screen,
+			final Histogram inputLatency) {
+		backBufferGraphics.setFont(fontRegular);
+		backBufferGraphics.setColor(Color.GREEN);
+		backBufferGraphics.drawString(String.format(
+				"input p50 %.1f p99 %.1f max %.1f ms",
+				inputLatency.getValueAtPercentile(50) / NANOS_PER_MILLI,
+				inputLatency.getValueAtPercentile(99) / NANOS_PER_MILLI,
+				inputLatency.getMax() / NANOS_PER_MILLI), 5,
+				screen.getHeight() - 5);
+	}
+
+	/**
+	 * Shows or hides the debug overlay.
+	 */
+	public void toggleDebugOverlay() {
+		debugOverlay = !debugOverlay;
+	}
+
+	/**
+	 * Logs the input latency measured on every type of screen. May be
+	 * called from another thread while the game is drawing.
+	 */
+	public void logInputLatencies() {
+		synchronized (inputLatencies) {
+			for (Map.Entry<Class<? extends Screen>, Histogram> entry
+					: inputLatencies.entrySet())
+				logger.info("Input latency of "
+						+ entry.getKey().getSimpleName() + ": "
+						+ entry.getValue().summarize(NANOS_PER_MILLI, " ms"));
+		}
+	}
+
+	/**
+	 * Creates the image every screen of the given size is drawn on. It is
+	 * kept between frames and screens, only created again when the size
+	 * changes.
+	 * 
+	 * @param width
+	 *            Width of the screen.
+	 * @param height
+	 *            Height of the screen.
+	 */
+	private static void createBackBuffer(final int width, final int height) {
+		if (backBufferGraphics != null)
+			backBufferGraphics.dispose();
+		if (backBuffer != null)
+			backBuffer.flush();
+
+		if (frame != null)
+			backBuffer = frame.getGraphicsConfiguration()
+					.createCompatibleImage(width, height);
+		else
+			backBuffer = new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_RGB);
+		backBufferGraphics = backBuffer.getGraphics();
+
+		// Text can't be drawn until the fonts are loaded.
+		fontsLoaded.join();
+		fontRegularMetrics = backBufferGraphics.getFontMetrics(fontRegular);
+		fontBigMetrics = backBufferGraphics.getFontMetrics(fontBig);
+		logger.info("Created " + width + "x" + height + " back buffer.");
 	}
 
 	/**
@@ -186,14 +500,18 @@ public final class DrawManager {
 	 */
 	public void drawEntity(final Entity entity, final int positionX,
 			final int positionY) {
-		boolean[][] image = spriteMap.get(entity.getSpriteType());
+		backBufferGraphics.drawImage(getSpriteImage(entity.getSpriteType(),
+				entity.getColor()), positionX, positionY, null);
+		entitiesDrawn++;
+	}
 
-		backBufferGraphics.setColor(entity.getColor());
-		for (int i = 0; i < image.length; i++)
-			for (int j = 0; j < image[i].length; j++)
-				if (image[i][j])
-					backBufferGraphics.drawRect(positionX + i * 2, positionY
-							+ j * 2, 1, 1);
+	/**
+	 * Returns the number of entities drawn since the drawing started.
+	 * 
+	 * @return Entities drawn.
+	 */
+	public int getEntitiesDrawn() {
+		return entitiesDrawn;
 	}
 
 	/**
@@ -255,9 +573,10 @@ public final class DrawManager {
 		backBufferGraphics.setFont(fontRegular);
 		backBufferGraphics.setColor(Color.WHITE);
 		backBufferGraphics.drawString(Integer.toString(lives), 20, 25);
-		Ship dummyShip = new Ship(0, 0);
+		if (livesShip == null)
+			livesShip = new Ship(0, 0);
 		for (int i = 0; i < lives; i++)
-			drawEntity(dummyShip, 40 + 35 * i, 10);
+			drawEntity(livesShip, 40 + 35 * i, 10);
 	}
 
 	/**
@@ -0,0 +1,215 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records gameplay events to a binary file, as fixed size records. Records
+ * are gathered in a buffer and written to disk when it fills up, so
+ * recording an event only costs a few buffer writes.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class EventJournal {
+
+	/** Identifier at the start of every journal file. */
+	public static final int MAGIC = 0x53494A31;
+	/** Version of the record format. */
+	public static final int VERSION = 1;
+	/** Size in bytes of the file header. */
+	public static final int HEADER_SIZE = 12;
+	/** Size in bytes of every record. */
+	public static final int RECORD_SIZE = 24;
+	/** Byte order of the journal files. */
+	public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	/** A level starts. Source is the level, target the lives left. */
+	public static final short LEVEL_START = 0;
+	/** A level ends. Source is the level, target the score. */
+	public static final short LEVEL_END = 1;
+	/** A bullet is shot. Source is the shooter, target unused. */
+	public static final short SHOT = 2;
+	/** The player's ship is hit. Source is the ship, target lives left. */
+	public static final short HIT = 3;
+	/** An enemy ship is destroyed. Target is the ship destroyed. */
+	public static final short KILL = 4;
+	/** The player's ship is hit with no lives left, like a hit. */
+	public static final short DEATH = 5;
+	/** The bonus ship appears. Source is the bonus ship. */
+	public static final short BONUS_SHIP = 6;
+	/** Number of event types. */
+	public static final int EVENT_TYPES = 7;
+
+	/** Entity id of the player's ship. */
+	public static final int PLAYER = 0;
+	/** Entity id of the bonus ship. */
+	public static final int BONUS = 1;
+	/** Entity id of the first ship in the enemy formation. */
+	public static final int FORMATION = 2;
+	/** Rows of the formation each column takes in the entity ids. */
+	public static final int FORMATION_ROWS = 64;
+
+	/** Journal recording nothing. */
+	public static final EventJournal DISABLED = new EventJournal();
+
+	/** Default number of records buffered before writing them to disk. */
+	private static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * Channel of the journal file, null once closed or when disabled. The
+	 * channel and buffer are guarded by the journal's monitor.
+	 */
+	private FileChannel channel;
+	/** Records waiting to be written. */
+	private ByteBuffer buffer;
+
+	/**
+	 * Constructor of the disabled journal.
+	 */
+	private EventJournal() {
+		this.channel = null;
+		this.buffer = null;
+	}
+
+	/**
+	 * Constructor, creates the journal file, replacing any previous one.
+	 * 
+	 * @param path
+	 *            Path of the journal file.
+	 * @throws IOException
+	 *             In case of creating or writing the file.
+	 */
+	public EventJournal(final Path path) throws IOException {
+		this(path, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor, creates the journal file, replacing any previous one.
+	 * 
+	 * @param path
+	 *            Path of the journal file.
+	 * @param capacity
+	 *            Number of records buffered before writing them to disk.
+	 * @throws IOException
+	 *             In case of creating or writing the file.
+	 */
+	public EventJournal(final Path path, final int capacity)
+			throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.buffer = ByteBuffer.allocateDirect(Math.max(capacity
+				* RECORD_SIZE, HEADER_SIZE));
+		this.buffer.order(BYTE_ORDER);
+
+		this.buffer.putInt(MAGIC);
+		this.buffer.putInt(VERSION);
+		this.buffer.putInt(RECORD_SIZE);
+		flush();
+	}
+
+	/**
+	 * Returns the entity id of a ship in the enemy formation.
+	 * 
+	 * @param column
+	 *            Column of the ship.
+	 * @param row
+	 *            Row of the ship.
+	 * @return Entity id of the ship.
+	 */
+	public static int formationShip(final int column, final int row) {
+		return FORMATION + column * FORMATION_ROWS + row;
+	}
+
+	/**
+	 * Checks if events are being recorded.
+	 * 
+	 * @return True if the journal is recording.
+	 */
+	public final synchronized boolean isEnabled() {
+		return this.channel != null;
+	}
+
+	/**
+	 * Records an event.
+	 * 
+	 * @param tick
+	 *            Update the event happens on.
+	 * @param type
+	 *            Type of event.
+	 * @param source
+	 *            Entity causing the event, or value given by the type.
+	 * @param target
+	 *            Entity affected by the event, or value given by the type.
+	 * @param positionX
+	 *            Horizontal position of the event.
+	 * @param positionY
+	 *            Vertical position of the event.
+	 */
+	public final synchronized void record(final long tick, final short type,
+			final int source, final int target, final int positionX,
+			final int positionY) {
+		if (this.channel == null)
+			return;
+
+		this.buffer.putLong(tick);
+		this.buffer.putShort(type);
+		this.buffer.putShort((short) 0);
+		this.buffer.putInt(source);
+		this.buffer.putInt(target);
+		this.buffer.putShort((short) positionX);
+		this.buffer.putShort((short) positionY);
+
+		if (this.buffer.remaining() < RECORD_SIZE)
+			flush();
+	}
+
+	/**
+	 * Writes the buffered records to disk. If writing fails, the journal
+	 * stops recording.
+	 */
+	public final synchronized void flush() {
+		if (this.channel == null)
+			return;
+
+		this.buffer.flip();
+		try {
+			while (this.buffer.hasRemaining())
+				this.channel.write(this.buffer);
+		} catch (IOException e) {
+			Core.getLogger().warning("Couldn't write event journal!");
+			closeChannel();
+		}
+		this.buffer.clear();
+	}
+
+	/**
+	 * Writes the buffered records and closes the journal file. Does nothing
+	 * if already closed. Safe to call from another thread, such as a
+	 * shutdown hook, while events are being recorded.
+	 */
+	public final synchronized void close() {
+		flush();
+		closeChannel();
+	}
+
+	/**
+	 * Closes the journal file, ignoring errors.
+	 */
+	private synchronized void closeChannel() {
+		if (this.channel == null)
+			return;
+
+		try {
+			this.channel.close();
+		} catch (IOException e) {
+			Core.getLogger().warning("Couldn't close event journal!");
+		}
+		this.channel = null;
+	}
+}
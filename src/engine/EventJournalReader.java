@@ -0,0 +1,196 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads event journals back and aggregates their events.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public final class EventJournalReader {
+
+	/** Number of records read from disk at once. */
+	private static final int RECORDS_PER_READ = 8192;
+	/** Names of the event types, in type order. */
+	private static final String[] TYPE_NAMES = { "level start", "level end",
+			"shot", "hit", "kill", "death", "bonus ship" };
+
+	/** Number of events of each type. */
+	private long[] typeCounts;
+	/** Bullets shot by the player. */
+	private long playerShots;
+	/** Bonus ships destroyed. */
+	private long bonusKills;
+	/** Enemy ships destroyed on each formation row. */
+	private long[] rowKills;
+	/** Sum of the score at the end of every level. */
+	private long levelEndScore;
+	/** Highest level reached. */
+	private int maxLevel;
+	/** Updates played, summed over every level. */
+	private long levelTicks;
+	/** Update the current level started on. */
+	private long levelStartTick;
+
+	/**
+	 * Reads every journal given and prints the aggregated events.
+	 * 
+	 * @param args
+	 *            Program args: paths of the journal files.
+	 * @throws IOException
+	 *             In case of reading a journal.
+	 */
+	public static void main(final String[] args) throws IOException {
+		EventJournalReader reader = new EventJournalReader();
+		String[] paths = args.length > 0 ? args : new String[] { "events" };
+		for (String path : paths)
+			reader.read(Paths.get(path));
+		reader.printSummary(paths.length);
+	}
+
+	/**
+	 * Constructor, starts with no events read.
+	 */
+	public EventJournalReader() {
+		this.typeCounts = new long[EventJournal.EVENT_TYPES];
+		this.rowKills = new long[EventJournal.FORMATION_ROWS];
+	}
+
+	/**
+	 * Reads a journal file, adding its events to the aggregates.
+	 * 
+	 * @param path
+	 *            Path of the journal file.
+	 * @throws IOException
+	 *             In case of reading the file, or if it is not a journal.
+	 */
+	public final void read(final Path path) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(RECORDS_PER_READ
+				* EventJournal.RECORD_SIZE);
+		buffer.order(EventJournal.BYTE_ORDER);
+
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.READ)) {
+			buffer.limit(EventJournal.HEADER_SIZE);
+			readFully(channel, buffer);
+			buffer.flip();
+			if (buffer.remaining() < EventJournal.HEADER_SIZE
+					|| buffer.getInt() != EventJournal.MAGIC
+					|| buffer.getInt() != EventJournal.VERSION
+					|| buffer.getInt() != EventJournal.RECORD_SIZE)
+				throw new IOException(path + " is not an event journal.");
+
+			buffer.clear();
+			while (readFully(channel, buffer)) {
+				buffer.flip();
+				while (buffer.remaining() >= EventJournal.RECORD_SIZE)
+					readRecord(buffer);
+				buffer.compact();
+			}
+		}
+	}
+
+	/**
+	 * Reads from a channel until the buffer is full or the file ends.
+	 * 
+	 * @param channel
+	 *            Channel to read from.
+	 * @param buffer
+	 *            Buffer to fill.
+	 * @return False if nothing could be read.
+	 * @throws IOException
+	 *             In case of reading the file.
+	 */
+	private static boolean readFully(final FileChannel channel,
+			final ByteBuffer buffer) throws IOException {
+		boolean read = false;
+		while (buffer.hasRemaining() && channel.read(buffer) > 0)
+			read = true;
+		return read;
+	}
+
+	/**
+	 * Reads a record and adds it to the aggregates.
+	 * 
+	 * @param buffer
+	 *            Buffer positioned at the start of the record.
+	 */
+	private void readRecord(final ByteBuffer buffer) {
+		long tick = buffer.getLong();
+		short type = buffer.getShort();
+		buffer.getShort();
+		int source = buffer.getInt();
+		int target = buffer.getInt();
+		buffer.getShort();
+		buffer.getShort();
+
+		if (type < 0 || type >= EventJournal.EVENT_TYPES)
+			return;
+		this.typeCounts[type]++;
+
+		switch (type) {
+		case EventJournal.LEVEL_START:
+			this.levelStartTick = tick;
+			this.maxLevel = Math.max(this.maxLevel, source);
+			break;
+		case EventJournal.LEVEL_END:
+			this.levelTicks += tick - this.levelStartTick;
+			this.levelEndScore += target;
+			break;
+		case EventJournal.SHOT:
+			if (source == EventJournal.PLAYER)
+				this.playerShots++;
+			break;
+		case EventJournal.KILL:
+			if (target == EventJournal.BONUS)
+				this.bonusKills++;
+			else if (target >= EventJournal.FORMATION)
+				this.rowKills[(target - EventJournal.FORMATION)
+						% EventJournal.FORMATION_ROWS]++;
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Prints the aggregated events.
+	 * 
+	 * @param journals
+	 *            Number of journals read.
+	 */
+	public final void printSummary(final int journals) {
+		System.out.println(journals + " journals, "
+				+ this.typeCounts[EventJournal.LEVEL_START]
+				+ " levels started, highest level " + this.maxLevel);
+		for (int type = 0; type < EventJournal.EVENT_TYPES; type++)
+			System.out.println(String.format("%-11s %d", TYPE_NAMES[type],
+					this.typeCounts[type]));
+
+		long levelsEnded = this.typeCounts[EventJournal.LEVEL_END];
+		long kills = this.typeCounts[EventJournal.KILL];
+		System.out.println(String.format(
+				"player shots %d, accuracy %.2f%%, bonus ships destroyed %d",
+				this.playerShots, this.playerShots == 0 ? 0.0
+						: 100.0 * kills / this.playerShots, this.bonusKills));
+		if (levelsEnded > 0)
+			System.out.println(String.format(
+					"mean level length %.1f updates, mean score at level "
+							+ "end %.1f", (double) this.levelTicks
+							/ levelsEnded, (double) this.levelEndScore
+							/ levelsEnded));
+
+		StringBuilder rows = new StringBuilder("kills by row:");
+		for (int row = 0; row < EventJournal.FORMATION_ROWS; row++)
+			if (this.rowKills[row] > 0)
+				rows.append(' ').append(row).append('=')
+						.append(this.rowKills[row]);
+		System.out.println(rows);
+	}
+}
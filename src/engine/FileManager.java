@@ -2,24 +2,36 @@ package engine;
 
 import java.awt.Font;
 import java.awt.FontFormatException;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.net.URLDecoder;
-import java.nio.charset.Charset;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
 
 import engine.DrawManager.SpriteType;
 
@@ -37,6 +49,25 @@ public final class FileManager {
 	private static Logger logger;
 	/** Max number of high scores. */
 	private static final int MAX_SCORES = 7;
+	/** Resource with every sprite, packed. */
+	private static final String SPRITE_PACK = "graphics.bin";
+	/** Resource with every sprite, in text form. */
+	private static final String SPRITE_TEXT = "graphics";
+	/** Name of the user high scores file. */
+	private static final String SCORES_FILE = "scores";
+	/** Start of the checksum line of the high scores file. */
+	private static final String CHECKSUM_PREFIX = "CRC32 ";
+	/** Seconds to wait for pending high scores to be saved, on exit. */
+	private static final int SAVE_TIMEOUT = 5;
+
+	/** Guards the high scores waiting to be saved. */
+	private final Object pendingLock = new Object();
+	/** Last high scores waiting to be saved, null if none. */
+	private List<Score> pendingScores;
+	/** Checks if the file writing thread has a save to do. */
+	private boolean saveScheduled;
+	/** File writing thread, created on the first save. */
+	private ExecutorService saveExecutor;
 
 	/**
 	 * private constructor.
@@ -50,14 +81,15 @@ public final class FileManager {
 	 * 
 	 * @return Shared instance of FileManager.
 	 */
-	protected static FileManager getInstance() {
+	protected static synchronized FileManager getInstance() {
 		if (instance == null)
 			instance = new FileManager();
 		return instance;
 	}
 
 	/**
-	 * Loads sprites from disk.
+	 * Loads sprites from disk, from the sprite pack if there is a valid one,
+	 * or else from the text sprites.
 	 * 
 	 * @param spriteMap
 	 *            Mapping of sprite type and empty boolean matrix that will
@@ -68,61 +100,101 @@ public final class FileManager {
 	public void loadSprite(final Map<SpriteType, boolean[][]> spriteMap)
 			throws IOException {
 		InputStream inputStream = null;
+		String resource = SPRITE_PACK;
+		GameEvents.FileIO event = new GameEvents.FileIO();
+		event.begin();
 
 		try {
 			inputStream = DrawManager.class.getClassLoader()
-					.getResourceAsStream("graphics");
-			char c;
-
-			// Sprite loading.
-			for (Map.Entry<SpriteType, boolean[][]> sprite : spriteMap
-					.entrySet()) {
-				for (int i = 0; i < sprite.getValue().length; i++)
-					for (int j = 0; j < sprite.getValue()[i].length; j++) {
-						do
-							c = (char) inputStream.read();
-						while (c != '0' && c != '1');
-
-						if (c == '1')
-							sprite.getValue()[i][j] = true;
-						else
-							sprite.getValue()[i][j] = false;
-					}
-				logger.fine("Sprite " + sprite.getKey() + " loaded.");
+					.getResourceAsStream(SPRITE_PACK);
+			if (inputStream != null) {
+				try {
+					SpritePack.read(ByteBuffer.wrap(inputStream
+							.readAllBytes()), spriteMap);
+					logger.fine("Sprites loaded from " + SPRITE_PACK + ".");
+					return;
+				} catch (IOException e) {
+					logger.warning("Sprite pack not loaded, loading text "
+							+ "sprites: " + e.getMessage());
+				} finally {
+					inputStream.close();
+				}
 			}
-			if (inputStream != null)
-				inputStream.close();
+
+			resource = SPRITE_TEXT;
+			inputStream = new BufferedInputStream(DrawManager.class
+					.getClassLoader().getResourceAsStream(SPRITE_TEXT));
+			readSpriteText(inputStream, spriteMap);
+			inputStream.close();
+			logger.fine("Sprites loaded from " + SPRITE_TEXT + ".");
 		} finally {
 			if (inputStream != null)
 				inputStream.close();
+			commitFileEvent(event, "load sprites", resource);
 		}
 	}
 
 	/**
-	 * Loads a font of a given size.
+	 * Reads sprites in text form, every pixel a '0' or a '1', one sprite
+	 * after another in the order of the map. Other characters are skipped.
 	 * 
-	 * @param size
-	 *            Point size of the font.
-	 * @return New font.
+	 * @param inputStream
+	 *            Stream to read the sprites from.
+	 * @param spriteMap
+	 *            Mapping of sprite type and empty boolean matrix that will
+	 *            contain the image.
 	 * @throws IOException
-	 *             In case of loading problems.
+	 *             In case of loading problems, or if the stream ends before
+	 *             every sprite is read.
+	 */
+	static void readSpriteText(final InputStream inputStream,
+			final Map<SpriteType, boolean[][]> spriteMap)
+			throws IOException {
+		int c;
+
+		for (Map.Entry<SpriteType, boolean[][]> sprite : spriteMap
+				.entrySet()) {
+			for (int i = 0; i < sprite.getValue().length; i++)
+				for (int j = 0; j < sprite.getValue()[i].length; j++) {
+					do
+						c = inputStream.read();
+					while (c != '0' && c != '1' && c != -1);
+
+					if (c == -1)
+						throw new EOFException("Sprite " + sprite.getKey()
+								+ " is incomplete.");
+					sprite.getValue()[i][j] = c == '1';
+				}
+		}
+	}
+
+	/**
+	 * Loads the font, to derive every size used from it.
+	 * 
+	 * @return New font, one point in size.
+	 * @throws IOException
+	 *             In case of loading problems, or if there is no font.
 	 * @throws FontFormatException
 	 *             In case of incorrect font format.
 	 */
-	public Font loadFont(final float size) throws IOException,
-			FontFormatException {
+	public Font loadFont() throws IOException, FontFormatException {
 		InputStream inputStream = null;
 		Font font;
+		GameEvents.FileIO event = new GameEvents.FileIO();
+		event.begin();
 
 		try {
 			// Font loading.
 			inputStream = FileManager.class.getClassLoader()
 					.getResourceAsStream("font.ttf");
-			font = Font.createFont(Font.TRUETYPE_FONT, inputStream).deriveFont(
-					size);
+			if (inputStream == null)
+				throw new FileNotFoundException("font.ttf not found.");
+			font = Font.createFont(Font.TRUETYPE_FONT,
+					new BufferedInputStream(inputStream));
 		} finally {
 			if (inputStream != null)
 				inputStream.close();
+			commitFileEvent(event, "load font", "font.ttf");
 		}
 
 		return font;
@@ -166,52 +238,42 @@ public final class FileManager {
 
 	/**
 	 * Loads high scores from file, and returns a sorted list of pairs score -
-	 * value.
+	 * value. Scores waiting to be saved are returned instead, if any. If
+	 * the file is corrupt, the default high scores are loaded.
 	 * 
 	 * @return Sorted list of scores - players.
 	 * @throws IOException
 	 *             In case of loading problems.
 	 */
 	public List<Score> loadHighScores() throws IOException {
+		synchronized (this.pendingLock) {
+			if (this.pendingScores != null) {
+				List<Score> highScores = new ArrayList<Score>(
+						this.pendingScores);
+				Collections.sort(highScores);
+				return highScores;
+			}
+		}
 
-		List<Score> highScores = new ArrayList<Score>();
-		InputStream inputStream = null;
-		BufferedReader bufferedReader = null;
+		List<Score> highScores;
+		GameEvents.FileIO event = new GameEvents.FileIO();
+		event.begin();
 
 		try {
-			String jarPath = FileManager.class.getProtectionDomain()
-					.getCodeSource().getLocation().getPath();
-			jarPath = URLDecoder.decode(jarPath, "UTF-8");
-
-			String scoresPath = new File(jarPath).getParent();
-			scoresPath += File.separator;
-			scoresPath += "scores";
-
-			File scoresFile = new File(scoresPath);
-			inputStream = new FileInputStream(scoresFile);
-			bufferedReader = new BufferedReader(new InputStreamReader(
-					inputStream, Charset.forName("UTF-8")));
-
+			byte[] contents = Files.readAllBytes(getScoresFile().toPath());
 			logger.info("Loading user high scores.");
-
-			Score highScore = null;
-			String name = bufferedReader.readLine();
-			String score = bufferedReader.readLine();
-
-			while ((name != null) && (score != null)) {
-				highScore = new Score(name, Integer.parseInt(score));
-				highScores.add(highScore);
-				name = bufferedReader.readLine();
-				score = bufferedReader.readLine();
+			highScores = parseHighScores(contents);
+			if (highScores == null) {
+				logger.warning("High scores file is corrupt, loading default "
+						+ "high scores.");
+				highScores = loadDefaultHighScores();
 			}
-
-		} catch (FileNotFoundException e) {
+		} catch (NoSuchFileException e) {
 			// loads default if there's no user scores.
 			logger.info("Loading default high scores.");
 			highScores = loadDefaultHighScores();
 		} finally {
-			if (bufferedReader != null)
-				bufferedReader.close();
+			commitFileEvent(event, "load high scores", SCORES_FILE);
 		}
 
 		Collections.sort(highScores);
@@ -219,53 +281,270 @@ public final class FileManager {
 	}
 
 	/**
-	 * Saves user high scores to disk.
+	 * Parses the contents of a high scores file, a line with the name and
+	 * a line with the value of every score. Files saved by the game end with
+	 * a checksum line, older files without one are trusted if they hold at
+	 * least one whole score. A file with no scores, such as one emptied by
+	 * a crash while saving, is corrupt.
+	 * 
+	 * @param contents
+	 *            Contents of the file.
+	 * @return Scores in the file, null if it is corrupt.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	private static List<Score> parseHighScores(final byte[] contents)
+			throws IOException {
+		String text = new String(contents, StandardCharsets.UTF_8);
+		int end = text.endsWith("\n") ? text.length() - 1 : text.length();
+		int lastLineStart = text.lastIndexOf('\n', end - 1) + 1;
+		String lastLine = text.substring(lastLineStart, end).trim();
+
+		String body = text;
+		if (lastLine.startsWith(CHECKSUM_PREFIX)) {
+			body = text.substring(0, lastLineStart);
+			if (!lastLine.substring(CHECKSUM_PREFIX.length()).equals(
+					checksumOf(body)))
+				return null;
+		}
+
+		List<Score> highScores = new ArrayList<Score>();
+		BufferedReader reader = new BufferedReader(new StringReader(body));
+		String name = reader.readLine();
+		while (name != null) {
+			String score = reader.readLine();
+			if (score == null)
+				return null;
+			try {
+				highScores.add(new Score(name, Integer.parseInt(score)));
+			} catch (NumberFormatException e) {
+				return null;
+			}
+			name = reader.readLine();
+		}
+		if (highScores.isEmpty())
+			return null;
+		return highScores;
+	}
+
+	/**
+	 * Saves user high scores to disk. Scores are written to a temporary file
+	 * first, which then replaces the previous one, so a crash while saving
+	 * never leaves the scores half written.
 	 * 
 	 * @param highScores
 	 *            High scores to save.
 	 * @throws IOException
-	 *             In case of loading problems.
+	 *             In case of saving problems.
 	 */
-	public void saveHighScores(final List<Score> highScores) 
+	public synchronized void saveHighScores(final List<Score> highScores)
 			throws IOException {
-		OutputStream outputStream = null;
-		BufferedWriter bufferedWriter = null;
+		GameEvents.FileIO event = new GameEvents.FileIO();
+		event.begin();
 
+		Path scoresPath = getScoresFile().toPath();
+		Path tempPath = scoresPath.resolveSibling(SCORES_FILE + ".tmp");
 		try {
-			String jarPath = FileManager.class.getProtectionDomain()
-					.getCodeSource().getLocation().getPath();
-			jarPath = URLDecoder.decode(jarPath, "UTF-8");
-
-			String scoresPath = new File(jarPath).getParent();
-			scoresPath += File.separator;
-			scoresPath += "scores";
-
-			File scoresFile = new File(scoresPath);
-
-			if (!scoresFile.exists())
-				scoresFile.createNewFile();
-
-			outputStream = new FileOutputStream(scoresFile);
-			bufferedWriter = new BufferedWriter(new OutputStreamWriter(
-					outputStream, Charset.forName("UTF-8")));
-
-			logger.info("Saving user high scores.");
-
+			StringBuilder body = new StringBuilder();
 			// Saves 7 or less scores.
 			int savedCount = 0;
 			for (Score score : highScores) {
 				if (savedCount >= MAX_SCORES)
 					break;
-				bufferedWriter.write(score.getName());
-				bufferedWriter.newLine();
-				bufferedWriter.write(Integer.toString(score.getScore()));
-				bufferedWriter.newLine();
+				body.append(score.getName()).append('\n')
+						.append(score.getScore()).append('\n');
 				savedCount++;
 			}
+			String contents = body + CHECKSUM_PREFIX
+					+ checksumOf(body.toString()) + "\n";
 
+			logger.info("Saving user high scores.");
+			try (FileChannel channel = FileChannel.open(tempPath,
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.wrap(contents
+						.getBytes(StandardCharsets.UTF_8));
+				while (buffer.hasRemaining())
+					channel.write(buffer);
+				channel.force(true);
+			}
+
+			try {
+				Files.move(tempPath, scoresPath,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempPath, scoresPath,
+						StandardCopyOption.REPLACE_EXISTING);
+			}
+			forceDirectory(scoresPath.getParent());
 		} finally {
-			if (bufferedWriter != null)
-				bufferedWriter.close();
+			Files.deleteIfExists(tempPath);
+			commitFileEvent(event, "save high scores", SCORES_FILE);
+		}
+	}
+
+	/**
+	 * Saves user high scores to disk on the file writing thread, returning
+	 * immediately. If scores are saved again before the thread gets to it,
+	 * only the last ones are written.
+	 * 
+	 * @param highScores
+	 *            High scores to save.
+	 */
+	public void saveHighScoresAsync(final List<Score> highScores) {
+		List<Score> scores = new ArrayList<Score>(highScores);
+		synchronized (this.pendingLock) {
+			this.pendingScores = scores;
+			if (this.saveScheduled)
+				return;
+			this.saveScheduled = true;
+		}
+
+		Runnable save = new Runnable() {
+			@Override
+			public void run() {
+				writePendingScores();
+			}
+		};
+		try {
+			getSaveExecutor().execute(save);
+		} catch (RejectedExecutionException e) {
+			// Already flushed, on exit.
+			save.run();
+		}
+	}
+
+	/**
+	 * Waits for the high scores waiting to be saved, if any, and stops the
+	 * file writing thread. Later saves are done on the caller thread.
+	 */
+	public void flushHighScores() {
+		ExecutorService executor;
+		synchronized (this.pendingLock) {
+			executor = this.saveExecutor;
+		}
+		if (executor == null)
+			return;
+
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(SAVE_TIMEOUT, TimeUnit.SECONDS))
+				logger.warning("High scores not saved in time!");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Saves the last high scores waiting to be saved.
+	 */
+	private void writePendingScores() {
+		List<Score> scores;
+		synchronized (this.pendingLock) {
+			scores = this.pendingScores;
+			this.saveScheduled = false;
+		}
+
+		try {
+			saveHighScores(scores);
+		} catch (IOException e) {
+			logger.warning("Couldn't save high scores! " + e.getMessage());
+		}
+
+		synchronized (this.pendingLock) {
+			if (this.pendingScores == scores)
+				this.pendingScores = null;
+		}
+	}
+
+	/**
+	 * Returns the thread high scores are saved on, creating it the first
+	 * time.
+	 * 
+	 * @return Executor of the file writing thread.
+	 */
+	private ExecutorService getSaveExecutor() {
+		synchronized (this.pendingLock) {
+			if (this.saveExecutor == null)
+				this.saveExecutor = Executors.newSingleThreadExecutor(
+						new ThreadFactory() {
+							@Override
+							public Thread newThread(final Runnable runnable) {
+								Thread thread = new Thread(runnable,
+										"file-writer");
+								thread.setDaemon(true);
+								return thread;
+							}
+						});
+			return this.saveExecutor;
+		}
+	}
+
+	/**
+	 * Returns the user high scores file, next to the application.
+	 * 
+	 * @return High scores file.
+	 * @throws IOException
+	 *             In case of decoding the application path.
+	 */
+	private static File getScoresFile() throws IOException {
+		String jarPath = FileManager.class.getProtectionDomain()
+				.getCodeSource().getLocation().getPath();
+		jarPath = URLDecoder.decode(jarPath, "UTF-8");
+
+		String scoresPath = new File(jarPath).getParent();
+		scoresPath += File.separator;
+		scoresPath += SCORES_FILE;
+
+		return new File(scoresPath);
+	}
+
+	/**
+	 * Returns the checksum of the scores in a high scores file.
+	 * 
+	 * @param body
+	 *            Lines of the file with the scores.
+	 * @return Checksum, in hexadecimal.
+	 */
+	private static String checksumOf(final String body) {
+		CRC32 crc = new CRC32();
+		crc.update(body.getBytes(StandardCharsets.UTF_8));
+		return Long.toHexString(crc.getValue());
+	}
+
+	/**
+	 * Forces a directory to disk, so files moved into it are kept after a
+	 * crash. Not every system supports it, so failures are ignored.
+	 * 
+	 * @param directory
+	 *            Directory to force.
+	 */
+	private static void forceDirectory(final Path directory) {
+		try (FileChannel channel = FileChannel.open(directory,
+				StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			logger.fine("Couldn't force " + directory + " to disk.");
+		}
+	}
+
+	/**
+	 * Finishes a file event and commits it, if being recorded.
+	 * 
+	 * @param event
+	 *            Event of the operation.
+	 * @param operation
+	 *            Operation done.
+	 * @param resource
+	 *            File or resource read or written.
+	 */
+	private static void commitFileEvent(final GameEvents.FileIO event,
+			final String operation, final String resource) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.operation = operation;
+			event.resource = resource;
+			event.commit();
 		}
 	}
 }
@@ -1,6 +1,10 @@
 package engine;
 
+import java.awt.Graphics;
+import java.awt.Image;
 import java.awt.Insets;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
 
 import javax.swing.JFrame;
 
@@ -21,6 +25,10 @@ public class Frame extends JFrame {
 	private int height;
 	/** Screen currently shown. */
 	private Screen currentScreen;
+	/** Frame insets, drawing area offset. */
+	private Insets insets;
+	/** Page flipping strategy used to present the drawn images. */
+	private BufferStrategy bufferStrategy;
 
 	/**
 	 * Initializes the new frame.
@@ -38,11 +46,16 @@ public class Frame extends JFrame {
 		setLocationRelativeTo(null);
 		setVisible(true);
 
-		Insets insets = getInsets();
+		this.insets = getInsets();
 		this.width = width - insets.left - insets.right;
 		this.height = height - insets.top + insets.bottom;
 		setTitle("Invaders");
 
+		// Painting is done by the game loop, not by Swing.
+		setIgnoreRepaint(true);
+		createBufferStrategy(2);
+		this.bufferStrategy = getBufferStrategy();
+
 		addKeyListener(Core.getInputManager());
 	}
 
@@ -54,11 +67,42 @@ public class Frame extends JFrame {
 	 * @return Return code of the finished screen.
 	 */
 	public final int setScreen(final Screen screen) {
+		GameEvents.ScreenTransition transition =
+				new GameEvents.ScreenTransition();
+		if (transition.shouldCommit()) {
+			transition.from = currentScreen == null ? ""
+					: currentScreen.getClass().getSimpleName();
+			transition.to = screen.getClass().getSimpleName();
+			transition.commit();
+		}
+
 		currentScreen = screen;
 		currentScreen.initialize();
 		return currentScreen.run();
 	}
 
+	/**
+	 * Shows an image on the drawing area of the frame, flipping pages. The
+	 * image is drawn again if the contents of the buffers are lost.
+	 * 
+	 * @param image
+	 *            Image to show.
+	 */
+	public final void present(final Image image) {
+		do {
+			do {
+				Graphics graphics = this.bufferStrategy.getDrawGraphics();
+				graphics.drawImage(image, this.insets.left, this.insets.top,
+						null);
+				graphics.dispose();
+			} while (this.bufferStrategy.contentsRestored());
+
+			this.bufferStrategy.show();
+		} while (this.bufferStrategy.contentsLost());
+
+		Toolkit.getDefaultToolkit().sync();
+	}
+
 	/**
 	 * Getter for frame width.
 	 * 
@@ -0,0 +1,522 @@
+package engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Measures every frame of the screens: the time taken by each of its
+ * phases, the memory allocated and the garbage collections happening
+ * during it. Measures are kept in histograms, summarized when the screen
+ * ends and exported as CSV and JSON lines, one entry per screen. They can
+ * also be read while running through JMX.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class FrameTelemetry implements FrameTelemetryMXBean {
+
+	/** Phases of a frame. */
+	public static enum Phase {
+		/** Taking the input, once per update. */
+		Input,
+		/** Updating the screen, once per update. */
+		Update,
+		/** Moving and colliding the bullets, part of the update. */
+		Bullets,
+		/** Drawing the screen, including presenting it. */
+		Draw,
+		/** Presenting the drawn frame, part of drawing. */
+		Present
+	};
+
+	/** Telemetry measuring nothing. */
+	public static final FrameTelemetry DISABLED = new FrameTelemetry();
+
+	/** Nanoseconds in a millisecond. */
+	private static final double NANOS_PER_MILLI = 1000000.0;
+	/** Phases, in order. */
+	private static final Phase[] PHASES = Phase.values();
+
+	/** Checks if frames are being measured. */
+	private boolean enabled;
+	/** Name of the screen being measured. */
+	private String screenName;
+	/** Checks if a screen is being measured and not yet exported. */
+	private boolean screenStarted;
+	/** Number of screens measured. */
+	private int screenCount;
+
+	/** Time taken by each phase per frame, in nanoseconds. */
+	private Histogram[] phaseTimes;
+	/** Moment each phase started, in nanoseconds. */
+	private long[] phaseStarts;
+	/** Time taken by each phase during the current frame. */
+	private long[] framePhaseTimes;
+	/** Time taken by each frame, in nanoseconds. */
+	private Histogram frameTimes;
+	/** Time taken by frames with garbage collections, in nanoseconds. */
+	private Histogram gcFrameTimes;
+	/** Bytes allocated by each frame. */
+	private Histogram allocations;
+
+	/** Moment the current frame started, in nanoseconds. */
+	private long frameStart;
+	/** Bytes allocated by the game thread when the frame started. */
+	private long allocatedAtStart;
+	/** Garbage collections done when the frame started. */
+	private long gcCountAtStart;
+	/** Milliseconds spent collecting garbage when the frame started. */
+	private long gcTimeAtStart;
+	/** Milliseconds spent collecting garbage on the current screen. */
+	private long gcTime;
+
+	/** Source of the memory allocated by each thread, null if missing. */
+	private ThreadMXBean threadBean;
+	/** Garbage collectors of the virtual machine. */
+	private List<GarbageCollectorMXBean> gcBeans;
+
+	/** Path of the CSV export. */
+	private Path csvPath;
+	/** Path of the JSON lines export. */
+	private Path jsonPath;
+	/** Checks if any screen has been exported. */
+	private boolean exported;
+
+	/**
+	 * Constructor of the disabled telemetry.
+	 */
+	private FrameTelemetry() {
+		this.enabled = false;
+	}
+
+	/**
+	 * Constructor, the exports replace any previous files.
+	 * 
+	 * @param csvPath
+	 *            Path of the CSV export.
+	 * @param jsonPath
+	 *            Path of the JSON lines export.
+	 */
+	public FrameTelemetry(final Path csvPath, final Path jsonPath) {
+		this.enabled = true;
+		this.csvPath = csvPath;
+		this.jsonPath = jsonPath;
+		this.screenName = "";
+
+		this.phaseTimes = new Histogram[PHASES.length];
+		for (int i = 0; i < PHASES.length; i++)
+			this.phaseTimes[i] = new Histogram();
+		this.phaseStarts = new long[PHASES.length];
+		this.framePhaseTimes = new long[PHASES.length];
+		this.frameTimes = new Histogram();
+		this.gcFrameTimes = new Histogram();
+		this.allocations = new Histogram();
+
+		Object bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof ThreadMXBean
+				&& ((ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+			this.threadBean = (ThreadMXBean) bean;
+			this.threadBean.setThreadAllocatedMemoryEnabled(true);
+		}
+		this.gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+	}
+
+	/**
+	 * Starts measuring a new screen.
+	 * 
+	 * @param name
+	 *            Name of the screen.
+	 */
+	public final synchronized void startScreen(final String name) {
+		if (!this.enabled)
+			return;
+
+		this.screenName = name;
+		this.screenStarted = true;
+		this.screenCount++;
+		for (Histogram phaseTime : this.phaseTimes)
+			phaseTime.reset();
+		this.frameTimes.reset();
+		this.gcFrameTimes.reset();
+		this.allocations.reset();
+		this.gcTime = 0;
+	}
+
+	/**
+	 * Starts measuring a frame.
+	 */
+	public final void beginFrame() {
+		if (!this.enabled)
+			return;
+
+		for (int i = 0; i < PHASES.length; i++)
+			this.framePhaseTimes[i] = 0;
+		this.allocatedAtStart = getAllocatedBytes();
+		this.gcCountAtStart = getGcCount();
+		this.gcTimeAtStart = getGcTime();
+		this.frameStart = System.nanoTime();
+	}
+
+	/**
+	 * Marks the start of a phase of the current frame.
+	 * 
+	 * @param phase
+	 *            Phase starting.
+	 */
+	public final void startPhase(final Phase phase) {
+		if (this.enabled)
+			this.phaseStarts[phase.ordinal()] = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of a phase of the current frame. A phase may happen
+	 * several times in a frame, the times are added.
+	 * 
+	 * @param phase
+	 *            Phase ending.
+	 */
+	public final void endPhase(final Phase phase) {
+		if (this.enabled)
+			this.framePhaseTimes[phase.ordinal()] += System.nanoTime()
+					- this.phaseStarts[phase.ordinal()];
+	}
+
+	/**
+	 * Finishes measuring the current frame.
+	 */
+	public final void endFrame() {
+		if (!this.enabled)
+			return;
+
+		long frameTime = System.nanoTime() - this.frameStart;
+		long allocated = getAllocatedBytes() - this.allocatedAtStart;
+		boolean collected = getGcCount() != this.gcCountAtStart;
+		long collectionTime = getGcTime() - this.gcTimeAtStart;
+
+		synchronized (this) {
+			this.frameTimes.record(frameTime);
+			for (int i = 0; i < PHASES.length; i++)
+				this.phaseTimes[i].record(this.framePhaseTimes[i]);
+			if (this.threadBean != null)
+				this.allocations.record(allocated);
+			if (collected) {
+				this.gcFrameTimes.record(frameTime);
+				this.gcTime += collectionTime;
+			}
+		}
+	}
+
+	/**
+	 * Finishes measuring the current screen, logging a summary and adding
+	 * its measures to the exports. Also called on exit, from the shutdown
+	 * hook, as the screen may still be running; each screen is only
+	 * exported once.
+	 */
+	public final synchronized void endScreen() {
+		if (!this.enabled || !this.screenStarted)
+			return;
+		this.screenStarted = false;
+		if (this.frameTimes.getTotalCount() == 0)
+			return;
+
+		Core.getLogger().info(this.screenName + " frame times: "
+				+ this.frameTimes.summarize(NANOS_PER_MILLI, " ms"));
+		try {
+			exportCsv();
+			exportJson();
+			this.exported = true;
+		} catch (IOException e) {
+			Core.getLogger().warning("Couldn't export frame telemetry!");
+		}
+	}
+
+	/**
+	 * Adds the measures of the current screen to the CSV export, one row
+	 * per measure.
+	 * 
+	 * @throws IOException
+	 *             In case of writing the file.
+	 */
+	private void exportCsv() throws IOException {
+		try (BufferedWriter writer = openExport(this.csvPath)) {
+			if (!this.exported) {
+				writer.write("screen,run,measure,unit,count,mean,p50,p99,"
+						+ "p99.9,max");
+				writer.newLine();
+			}
+			writeCsvRow(writer, "frame", "ms", this.frameTimes,
+					NANOS_PER_MILLI);
+			for (int i = 0; i < PHASES.length; i++)
+				writeCsvRow(writer, PHASES[i].name().toLowerCase(Locale.ROOT),
+						"ms", this.phaseTimes[i], NANOS_PER_MILLI);
+			writeCsvRow(writer, "gc frame", "ms", this.gcFrameTimes,
+					NANOS_PER_MILLI);
+			if (this.threadBean != null)
+				writeCsvRow(writer, "allocation", "bytes", this.allocations, 1);
+		}
+	}
+
+	/**
+	 * Writes a row of the CSV export.
+	 * 
+	 * @param writer
+	 *            Writer of the export.
+	 * @param measure
+	 *            Name of the measure.
+	 * @param unitName
+	 *            Name of the unit of the values.
+	 * @param histogram
+	 *            Values measured.
+	 * @param unit
+	 *            Size of the unit of the values.
+	 * @throws IOException
+	 *             In case of writing the file.
+	 */
+	private void writeCsvRow(final BufferedWriter writer,
+			final String measure, final String unitName,
+			final Histogram histogram, final double unit) throws IOException {
+		writer.write(String.format(Locale.ROOT,
+				"%s,%d,%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f", this.screenName,
+				this.screenCount, measure, unitName,
+				histogram.getTotalCount(), histogram.getMean() / unit,
+				histogram.getValueAtPercentile(50) / unit,
+				histogram.getValueAtPercentile(99) / unit,
+				histogram.getValueAtPercentile(99.9) / unit,
+				histogram.getMax() / unit));
+		writer.newLine();
+	}
+
+	/**
+	 * Adds the measures of the current screen to the JSON lines export, as
+	 * a single object.
+	 * 
+	 * @throws IOException
+	 *             In case of writing the file.
+	 */
+	private void exportJson() throws IOException {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"screen\":\"").append(this.screenName)
+				.append("\",\"run\":").append(this.screenCount)
+				.append(",\"gcTimeMs\":").append(this.gcTime)
+				.append(",\"frameMs\":");
+		appendJson(json, this.frameTimes, NANOS_PER_MILLI);
+		for (int i = 0; i < PHASES.length; i++) {
+			json.append(",\"")
+					.append(PHASES[i].name().toLowerCase(Locale.ROOT))
+					.append("Ms\":");
+			appendJson(json, this.phaseTimes[i], NANOS_PER_MILLI);
+		}
+		json.append(",\"gcFrameMs\":");
+		appendJson(json, this.gcFrameTimes, NANOS_PER_MILLI);
+		if (this.threadBean != null) {
+			json.append(",\"allocationBytes\":");
+			appendJson(json, this.allocations, 1);
+		}
+		json.append('}');
+
+		try (BufferedWriter writer = openExport(this.jsonPath)) {
+			writer.write(json.toString());
+			writer.newLine();
+		}
+	}
+
+	/**
+	 * Adds the summary of a histogram to a JSON text, as an object.
+	 * 
+	 * @param json
+	 *            JSON text.
+	 * @param histogram
+	 *            Values measured.
+	 * @param unit
+	 *            Size of the unit of the values.
+	 */
+	private static void appendJson(final StringBuilder json,
+			final Histogram histogram, final double unit) {
+		json.append(String.format(Locale.ROOT, "{\"count\":%d,"
+				+ "\"mean\":%.3f,\"p50\":%.3f,\"p99\":%.3f,\"p99.9\":%.3f,"
+				+ "\"max\":%.3f}", histogram.getTotalCount(),
+				histogram.getMean() / unit,
+				histogram.getValueAtPercentile(50) / unit,
+				histogram.getValueAtPercentile(99) / unit,
+				histogram.getValueAtPercentile(99.9) / unit,
+				histogram.getMax() / unit));
+	}
+
+	/**
+	 * Opens an export file, replacing it on the first export and appending
+	 * to it afterwards.
+	 * 
+	 * @param path
+	 *            Path of the export.
+	 * @return Writer of the export.
+	 * @throws IOException
+	 *             In case of opening the file.
+	 */
+	private BufferedWriter openExport(final Path path) throws IOException {
+		return Files.newBufferedWriter(path, Charset.forName("UTF-8"),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				this.exported ? StandardOpenOption.APPEND
+						: StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Returns the bytes allocated by the current thread so far.
+	 * 
+	 * @return Bytes allocated, 0 if not supported.
+	 */
+	private long getAllocatedBytes() {
+		if (this.threadBean == null)
+			return 0;
+		return this.threadBean.getThreadAllocatedBytes(Thread
+				.currentThread().getId());
+	}
+
+	/**
+	 * Returns the number of garbage collections done so far.
+	 * 
+	 * @return Number of collections.
+	 */
+	private long getGcCount() {
+		long count = 0;
+		for (int i = 0; i < this.gcBeans.size(); i++)
+			count += Math.max(this.gcBeans.get(i).getCollectionCount(), 0);
+		return count;
+	}
+
+	/**
+	 * Returns the time spent collecting garbage so far.
+	 * 
+	 * @return Milliseconds spent collecting.
+	 */
+	private long getGcTime() {
+		long time = 0;
+		for (int i = 0; i < this.gcBeans.size(); i++)
+			time += Math.max(this.gcBeans.get(i).getCollectionTime(), 0);
+		return time;
+	}
+
+	/**
+	 * Checks if frames are being measured.
+	 * 
+	 * @return True if enabled.
+	 */
+	public final boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Getter for the name of the screen being measured.
+	 * 
+	 * @return Name of the current screen.
+	 */
+	@Override
+	public final synchronized String getScreenName() {
+		return this.screenName;
+	}
+
+	/**
+	 * Getter for the number of frames measured on the current screen.
+	 * 
+	 * @return Number of frames.
+	 */
+	@Override
+	public final synchronized long getFrameCount() {
+		return this.enabled ? this.frameTimes.getTotalCount() : 0;
+	}
+
+	/**
+	 * Getter for the median frame time on the current screen.
+	 * 
+	 * @return Frame time, in milliseconds.
+	 */
+	@Override
+	public final synchronized double getFrameTimeP50() {
+		return this.enabled ? this.frameTimes.getValueAtPercentile(50)
+				/ NANOS_PER_MILLI : 0;
+	}
+
+	/**
+	 * Getter for the 99th percentile frame time on the current screen.
+	 * 
+	 * @return Frame time, in milliseconds.
+	 */
+	@Override
+	public final synchronized double getFrameTimeP99() {
+		return this.enabled ? this.frameTimes.getValueAtPercentile(99)
+				/ NANOS_PER_MILLI : 0;
+	}
+
+	/**
+	 * Getter for the 99.9th percentile frame time on the current
+	 * screen.
+	 * 
+	 * @return Frame time, in milliseconds.
+	 */
+	@Override
+	public final synchronized double getFrameTimeP999() {
+		return this.enabled ? this.frameTimes.getValueAtPercentile(99.9)
+				/ NANOS_PER_MILLI : 0;
+	}
+
+	/**
+	 * Getter for the maximum frame time on the current screen.
+	 * 
+	 * @return Frame time, in milliseconds.
+	 */
+	@Override
+	public final synchronized double getFrameTimeMax() {
+		return this.enabled ? this.frameTimes.getMax() / NANOS_PER_MILLI : 0;
+	}
+
+	/**
+	 * Getter for the mean memory allocated per frame on the current
+	 * screen.
+	 * 
+	 * @return Bytes allocated, -1 if not supported.
+	 */
+	@Override
+	public final synchronized double getAllocatedBytesPerFrame() {
+		if (!this.enabled || this.threadBean == null)
+			return -1;
+		return this.allocations.getMean();
+	}
+
+	/**
+	 * Getter for the number of frames a garbage collection happened
+	 * during, on the current screen.
+	 * 
+	 * @return Number of frames.
+	 */
+	@Override
+	public final synchronized long getGcFrameCount() {
+		return this.enabled ? this.gcFrameTimes.getTotalCount() : 0;
+	}
+
+	/**
+	 * Getter for the summary of the time taken by each phase of the
+	 * frame, on the current screen.
+	 * 
+	 * @return Summary of every phase.
+	 */
+	@Override
+	public final synchronized String[] getPhaseSummaries() {
+		if (!this.enabled)
+			return new String[0];
+
+		String[] summaries = new String[PHASES.length];
+		for (int i = 0; i < PHASES.length; i++)
+			summaries[i] = PHASES[i] + ": "
+					+ this.phaseTimes[i].summarize(NANOS_PER_MILLI, " ms");
+		return summaries;
+	}
+}
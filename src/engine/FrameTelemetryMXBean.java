@@ -0,0 +1,75 @@
+package engine;
+
+/**
+ * Management interface of the frame telemetry, to read it live through JMX.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public interface FrameTelemetryMXBean {
+
+	/**
+	 * Getter for the name of the screen being measured.
+	 * 
+	 * @return Name of the current screen.
+	 */
+	String getScreenName();
+
+	/**
+	 * Getter for the number of frames measured on the current screen.
+	 * 
+	 * @return Number of frames.
+	 */
+	long getFrameCount();
+
+	/**
+	 * Getter for the median frame time on the current screen.
+	 * 
+	 * @return Frame time, in milliseconds.
+	 */
+	double getFrameTimeP50();
+
+	/**
+	 * Getter for the 99th percentile frame time on the current screen.
+	 * 
+	 * @return Frame time, in milliseconds.
+	 */
+	double getFrameTimeP99();
+
+	/**
+	 * Getter for the 99.9th percentile frame time on the current screen.
+	 * 
+	 * @return Frame time, in milliseconds.
+	 */
+	double getFrameTimeP999();
+
+	/**
+	 * Getter for the maximum frame time on the current screen.
+	 * 
+	 * @return Frame time, in milliseconds.
+	 */
+	double getFrameTimeMax();
+
+	/**
+	 * Getter for the mean memory allocated per frame on the current screen.
+	 * 
+	 * @return Bytes allocated, -1 if not supported.
+	 */
+	double getAllocatedBytesPerFrame();
+
+	/**
+	 * Getter for the number of frames a garbage collection happened during,
+	 * on the current screen.
+	 * 
+	 * @return Number of frames.
+	 */
+	long getGcFrameCount();
+
+	/**
+	 * Getter for the summary of the time taken by each phase of the frame,
+	 * on the current screen.
+	 * 
+	 * @return Summary of every phase.
+	 */
+	String[] getPhaseSummaries();
+}
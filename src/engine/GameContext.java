@@ -0,0 +1,151 @@
+package engine;
+
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Groups the state shared by everything taking part in a game session, so
+ * several sessions can run at the same time on different threads.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class GameContext {
+
+	/** Clock used by the game logic, advanced by the screen updates. */
+	private Clock clock;
+	/** Source of randomness of the game logic. */
+	private Random random;
+	/** Input of the session. */
+	private InputManager inputManager;
+	/** Logger of the session. */
+	private Logger logger;
+	/** Checks if screens run without a frame, as fast as possible. */
+	private boolean headless;
+	/** Journal of the session's gameplay events. */
+	private EventJournal journal;
+	/** Measures of the session's frames. */
+	private FrameTelemetry telemetry;
+
+	/**
+	 * Constructor, establishes the session's properties.
+	 * 
+	 * @param clock
+	 *            Clock used by the game logic.
+	 * @param random
+	 *            Source of randomness of the game logic.
+	 * @param inputManager
+	 *            Input of the session.
+	 * @param logger
+	 *            Logger of the session.
+	 * @param headless
+	 *            Checks if screens run without a frame.
+	 */
+	public GameContext(final Clock clock, final Random random,
+			final InputManager inputManager, final Logger logger,
+			final boolean headless) {
+		this.clock = clock;
+		this.random = random;
+		this.inputManager = inputManager;
+		this.logger = logger;
+		this.headless = headless;
+		this.journal = EventJournal.DISABLED;
+		this.telemetry = FrameTelemetry.DISABLED;
+	}
+
+	/**
+	 * Creates the context of a headless session, with its own clock, input
+	 * and a logger that only shows warnings.
+	 * 
+	 * @param seed
+	 *            Seed of the session randomness.
+	 * @param script
+	 *            Script providing the session input.
+	 * @return New headless context.
+	 */
+	public static GameContext createHeadless(final long seed,
+			final InputScript script) {
+		InputManager inputManager = new InputManager();
+		inputManager.setScript(script);
+
+		Logger logger = Logger.getAnonymousLogger();
+		logger.setLevel(Level.WARNING);
+
+		return new GameContext(new TickClock(), new Random(seed),
+				inputManager, logger, true);
+	}
+
+	/**
+	 * @return the clock
+	 */
+	public final Clock getClock() {
+		return clock;
+	}
+
+	/**
+	 * @param clock
+	 *            the clock to set
+	 */
+	public final void setClock(final Clock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * @return the random
+	 */
+	public final Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * @return the inputManager
+	 */
+	public final InputManager getInputManager() {
+		return inputManager;
+	}
+
+	/**
+	 * @return the logger
+	 */
+	public final Logger getLogger() {
+		return logger;
+	}
+
+	/**
+	 * @return the headless
+	 */
+	public final boolean isHeadless() {
+		return headless;
+	}
+
+	/**
+	 * @return the journal
+	 */
+	public final EventJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * @param journal
+	 *            the journal to set
+	 */
+	public final void setJournal(final EventJournal journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * @return the telemetry
+	 */
+	public final FrameTelemetry getTelemetry() {
+		return telemetry;
+	}
+
+	/**
+	 * @param telemetry
+	 *            the telemetry to set
+	 */
+	public final void setTelemetry(final FrameTelemetry telemetry) {
+		this.telemetry = telemetry;
+	}
+}
@@ -0,0 +1,134 @@
+package engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the game, to see what the game loop was
+ * doing next to garbage collections and I/O in a single recording. Every
+ * event can be enabled, disabled or given a threshold in the recording
+ * settings by its name. When disabled, creating and committing an event
+ * costs next to nothing, as the JIT removes it.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public final class GameEvents {
+
+	/** Category of the game loop events. */
+	private static final String GAME_LOOP = "Game Loop";
+	/** Category of the game. */
+	private static final String INVADERS = "Space Invaders";
+
+	/**
+	 * Constructor, not called.
+	 */
+	private GameEvents() {
+
+	}
+
+	/**
+	 * A single update of a screen, taking the input and updating it.
+	 */
+	@Name("engine.Tick")
+	@Label("Tick")
+	@Description("Single update of a screen")
+	@Category({ INVADERS, GAME_LOOP })
+	@StackTrace(false)
+	public static class Tick extends Event {
+		/** Screen updated. */
+		@Label("Screen")
+		public String screen;
+		/** Number of the update. */
+		@Label("Tick")
+		public long tick;
+	}
+
+	/**
+	 * Update of the screen elements, after taking the input.
+	 */
+	@Name("engine.Update")
+	@Label("Update")
+	@Description("Update of the screen elements")
+	@Category({ INVADERS, GAME_LOOP })
+	@StackTrace(false)
+	public static class Update extends Event {
+		/** Screen updated. */
+		@Label("Screen")
+		public String screen;
+	}
+
+	/**
+	 * Pass checking the bullets against the ships.
+	 */
+	@Name("engine.Collisions")
+	@Label("Collisions")
+	@Description("Pass moving the bullets and checking their collisions")
+	@Category({ INVADERS, GAME_LOOP })
+	@StackTrace(false)
+	public static class Collisions extends Event {
+		/** Bullets on screen checked. */
+		@Label("Bullets Checked")
+		public int bulletsChecked;
+		/** Pairs of bullet and ship tested for collision. */
+		@Label("Pairs Tested")
+		public int pairsTested;
+		/** Bullets that hit a ship. */
+		@Label("Hits")
+		public int hits;
+	}
+
+	/**
+	 * Drawing and presenting a frame.
+	 */
+	@Name("engine.Draw")
+	@Label("Draw")
+	@Description("Drawing and presenting a frame")
+	@Category({ INVADERS, GAME_LOOP })
+	@StackTrace(false)
+	public static class Draw extends Event {
+		/** Screen drawn. */
+		@Label("Screen")
+		public String screen;
+		/** Entities drawn, each one a single sprite blit. */
+		@Label("Entities Drawn")
+		public int entitiesDrawn;
+	}
+
+	/**
+	 * Reading or writing of a game file.
+	 */
+	@Name("engine.FileIO")
+	@Label("File I/O")
+	@Description("Reading or writing of a game file")
+	@Category({ INVADERS, "I/O" })
+	public static class FileIO extends Event {
+		/** Operation done. */
+		@Label("Operation")
+		public String operation;
+		/** File or resource read or written. */
+		@Label("Resource")
+		public String resource;
+	}
+
+	/**
+	 * Change from a screen to the next one.
+	 */
+	@Name("engine.ScreenTransition")
+	@Label("Screen Transition")
+	@Description("Change from a screen to the next one")
+	@Category(INVADERS)
+	@StackTrace(false)
+	public static class ScreenTransition extends Event {
+		/** Screen left, empty if none. */
+		@Label("From")
+		public String from;
+		/** Screen shown. */
+		@Label("To")
+		public String to;
+	}
+}
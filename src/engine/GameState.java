@@ -78,4 +78,52 @@ public class GameState {
 		return shipsDestroyed;
 	}
 
+	/**
+	 * Checks if another object is a game state with the same values.
+	 * 
+	 * @param object
+	 *            Object to compare with.
+	 * @return True if both game states are the same.
+	 */
+	@Override
+	public final boolean equals(final Object object) {
+		if (this == object)
+			return true;
+		if (!(object instanceof GameState))
+			return false;
+		GameState other = (GameState) object;
+		return this.level == other.level && this.score == other.score
+				&& this.livesRemaining == other.livesRemaining
+				&& this.bulletsShot == other.bulletsShot
+				&& this.shipsDestroyed == other.shipsDestroyed;
+	}
+
+	/**
+	 * Returns a hash code consistent with equals.
+	 * 
+	 * @return Hash code of the game state.
+	 */
+	@Override
+	public final int hashCode() {
+		int hash = this.level;
+		hash = 31 * hash + this.score;
+		hash = 31 * hash + this.livesRemaining;
+		hash = 31 * hash + this.bulletsShot;
+		hash = 31 * hash + this.shipsDestroyed;
+		return hash;
+	}
+
+	/**
+	 * Returns the values of the game state.
+	 * 
+	 * @return Text describing the game state.
+	 */
+	@Override
+	public final String toString() {
+		return "level " + this.level + ", score " + this.score + ", "
+				+ this.livesRemaining + " lives, " + this.bulletsShot
+				+ " bullets shot, " + this.shipsDestroyed
+				+ " ships destroyed";
+	}
+
 }
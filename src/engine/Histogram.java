@@ -0,0 +1,194 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non negative values, such as durations in nanoseconds, with
+ * a fixed relative precision. Values are counted in buckets that double in
+ * width with every power of two, each one split in 64 sub-buckets, so any
+ * value is known within a 1.6% error using a fixed amount of memory.
+ * Recording a value never allocates. Not thread safe.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class Histogram {
+
+	/** Bits of precision kept of every value. */
+	private static final int SUB_BUCKET_BITS = 7;
+	/** Number of values counted exactly. */
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	/** Number of sub-buckets of every bucket after the first one. */
+	private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+	/** Number of buckets, enough for any long value. */
+	private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1)
+			* HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+
+	/** Number of values recorded in each bucket. */
+	private long[] counts;
+	/** Number of values recorded. */
+	private long totalCount;
+	/** Sum of the values recorded. */
+	private double total;
+	/** Minimum value recorded. */
+	private long min;
+	/** Maximum value recorded. */
+	private long max;
+
+	/**
+	 * Constructor, creates an empty histogram.
+	 */
+	public Histogram() {
+		this.counts = new long[BUCKET_COUNT];
+		reset();
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as zero.
+	 * 
+	 * @param value
+	 *            Value to record.
+	 */
+	public final void record(final long value) {
+		long positive = Math.max(value, 0);
+		this.counts[indexOf(positive)]++;
+		this.totalCount++;
+		this.total += positive;
+		this.min = Math.min(this.min, positive);
+		this.max = Math.max(this.max, positive);
+	}
+
+	/**
+	 * Adds every value recorded in another histogram to this one.
+	 * 
+	 * @param other
+	 *            Histogram to add.
+	 */
+	public final void add(final Histogram other) {
+		for (int i = 0; i < BUCKET_COUNT; i++)
+			this.counts[i] += other.counts[i];
+		this.totalCount += other.totalCount;
+		this.total += other.total;
+		this.min = Math.min(this.min, other.min);
+		this.max = Math.max(this.max, other.max);
+	}
+
+	/**
+	 * Removes every value recorded.
+	 */
+	public final void reset() {
+		Arrays.fill(this.counts, 0);
+		this.totalCount = 0;
+		this.total = 0;
+		this.min = Long.MAX_VALUE;
+		this.max = 0;
+	}
+
+	/**
+	 * Getter for the number of values recorded.
+	 * 
+	 * @return Number of values recorded.
+	 */
+	public final long getTotalCount() {
+		return this.totalCount;
+	}
+
+	/**
+	 * Getter for the minimum value recorded.
+	 * 
+	 * @return Minimum value, 0 if empty.
+	 */
+	public final long getMin() {
+		return this.totalCount == 0 ? 0 : this.min;
+	}
+
+	/**
+	 * Getter for the maximum value recorded.
+	 * 
+	 * @return Maximum value, 0 if empty.
+	 */
+	public final long getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Getter for the mean of the values recorded.
+	 * 
+	 * @return Mean value, 0 if empty.
+	 */
+	public final double getMean() {
+		return this.totalCount == 0 ? 0 : this.total / this.totalCount;
+	}
+
+	/**
+	 * Returns the value below or equal to which a percentage of the values
+	 * recorded fall, within the precision of the histogram.
+	 * 
+	 * @param percentile
+	 *            Percentage of values, from 0 to 100.
+	 * @return Value at the percentile, 0 if empty.
+	 */
+	public final long getValueAtPercentile(final double percentile) {
+		if (this.totalCount == 0)
+			return 0;
+
+		long countAtPercentile = Math.max(1, (long) Math.ceil(Math.min(
+				percentile, 100) / 100 * this.totalCount));
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			count += this.counts[i];
+			if (count >= countAtPercentile)
+				return Math.max(this.getMin(),
+						Math.min(highestValueAt(i), this.max));
+		}
+		return this.max;
+	}
+
+	/**
+	 * Summarizes the histogram, with values divided by a unit.
+	 * 
+	 * @param unit
+	 *            Size of the unit the values are shown in.
+	 * @param unitName
+	 *            Name of the unit.
+	 * @return Count, mean, percentiles and maximum of the values.
+	 */
+	public final String summarize(final double unit, final String unitName) {
+		return String.format("count %d, mean %.2f%s, p50 %.2f%s, "
+				+ "p99 %.2f%s, p99.9 %.2f%s, max %.2f%s", this.totalCount,
+				getMean() / unit, unitName, getValueAtPercentile(50) / unit,
+				unitName, getValueAtPercentile(99) / unit, unitName,
+				getValueAtPercentile(99.9) / unit, unitName, this.max / unit,
+				unitName);
+	}
+
+	/**
+	 * Returns the bucket a value is counted in.
+	 * 
+	 * @param value
+	 *            Non negative value.
+	 * @return Index of the bucket.
+	 */
+	private static int indexOf(final long value) {
+		if (value < SUB_BUCKET_COUNT)
+			return (int) value;
+		int shift = Long.SIZE - Long.numberOfLeadingZeros(value)
+				- SUB_BUCKET_BITS;
+		return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+	}
+
+	/**
+	 * Returns the highest value counted in a bucket.
+	 * 
+	 * @param index
+	 *            Index of the bucket.
+	 * @return Highest value of the bucket.
+	 */
+	private static long highestValueAt(final int index) {
+		if (index < SUB_BUCKET_COUNT)
+			return index;
+		int shift = index / HALF_SUB_BUCKET_COUNT - 1;
+		long subBucket = index - shift * HALF_SUB_BUCKET_COUNT;
+		return ((subBucket + 1) << shift) - 1;
+	}
+}
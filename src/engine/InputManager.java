@@ -2,9 +2,16 @@ package engine;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Manages keyboard input for the provided screen.
+ * Manages keyboard input for the provided screen. Key events arrive on the
+ * event dispatch thread and are queued without locking; the game thread
+ * takes them once per update, so every update sees a fixed state of the
+ * keys. The latest state of every key is kept apart from the queue, so
+ * events dropped when it is full never leave a key stuck.
  * 
  * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
  * 
@@ -13,16 +20,46 @@ public final class InputManager implements KeyListener {
 
 	/** Number of recognised keys. */
 	private static final int NUM_KEYS = 256;
-	/** Array with the jeys marked as pressed or not. */
-	private static boolean[] keys;
+	/** Maximum number of key events waiting for the next update. */
+	private static final int EVENT_QUEUE_CAPACITY = 256;
+	/** Array with the keys held down, updated by the game thread. */
+	private boolean[] keys;
+	/** State of the keys during the current update. */
+	private boolean[] updateKeys;
+	/** Keys pressed since the previous update. */
+	private boolean[] pressedKeys;
+	/** Keys released since the previous update. */
+	private boolean[] releasedKeys;
+	/** Key events received from the keyboard, waiting for an update. */
+	private KeyEventQueue events;
+	/** Latest state of each key on the keyboard, 1 if held down. */
+	private AtomicIntegerArray latestKeys;
+	/** Key events dropped because the queue was full. */
+	private AtomicLong droppedEvents;
+	/** Dropped key events already accounted for by an update. */
+	private long seenDroppedEvents;
 	/** Singleton instance of the class. */
 	private static InputManager instance;
+	/** Script providing the input instead of the keyboard. */
+	private InputScript script;
+	/** Recording of the input of every update, if any. */
+	private InputRecording recording;
+	/** Moment of the oldest key event taken and not yet on screen. */
+	private long pendingInputTime;
+	/** Checks if there are key events taken and not yet on screen. */
+	private boolean hasPendingInput;
 
 	/**
-	 * Private constructor.
+	 * Constructor, used directly for the input of headless sessions.
 	 */
-	private InputManager() {
-		keys = new boolean[NUM_KEYS];
+	InputManager() {
+		this.keys = new boolean[NUM_KEYS];
+		this.updateKeys = new boolean[NUM_KEYS];
+		this.pressedKeys = new boolean[NUM_KEYS];
+		this.releasedKeys = new boolean[NUM_KEYS];
+		this.events = new KeyEventQueue(EVENT_QUEUE_CAPACITY);
+		this.latestKeys = new AtomicIntegerArray(NUM_KEYS);
+		this.droppedEvents = new AtomicLong();
 	}
 
 	/**
@@ -30,12 +67,141 @@ public final class InputManager implements KeyListener {
 	 * 
 	 * @return Shared instance of InputManager.
 	 */
-	protected static InputManager getInstance() {
+	protected static synchronized InputManager getInstance() {
 		if (instance == null)
 			instance = new InputManager();
 		return instance;
 	}
 
+	/**
+	 * Sets a script to provide the input instead of the keyboard.
+	 * 
+	 * @param inputScript
+	 *            Script to follow, null to go back to the keyboard.
+	 */
+	public void setScript(final InputScript inputScript) {
+		this.script = inputScript;
+		Arrays.fill(this.keys, false);
+		Arrays.fill(this.updateKeys, false);
+		Arrays.fill(this.pressedKeys, false);
+		Arrays.fill(this.releasedKeys, false);
+	}
+
+	/**
+	 * Sets a recording to add the input of every update to.
+	 * 
+	 * @param inputRecording
+	 *            Recording to add to, null to stop recording.
+	 */
+	public void setRecording(final InputRecording inputRecording) {
+		this.recording = inputRecording;
+	}
+
+	/**
+	 * Prepares the input for a new update, taking the key events received
+	 * since the previous one, or asking the script, if any, for the state of
+	 * the keys. The state is kept until the next update, so the whole update
+	 * sees the same keys. A key pressed and released between two updates
+	 * counts as held down for one update.
+	 * 
+	 * @param tick
+	 *            Number of the update.
+	 */
+	public void update(final long tick) {
+		Arrays.fill(this.pressedKeys, false);
+		Arrays.fill(this.releasedKeys, false);
+
+		if (this.script != null) {
+			Arrays.fill(this.keys, false);
+			this.script.apply(tick, this);
+			for (int keyCode = 0; keyCode < NUM_KEYS; keyCode++) {
+				this.pressedKeys[keyCode] = this.keys[keyCode]
+						&& !this.updateKeys[keyCode];
+				this.releasedKeys[keyCode] = !this.keys[keyCode]
+						&& this.updateKeys[keyCode];
+			}
+		} else {
+			while (!this.events.isEmpty()) {
+				int keyCode = this.events.peekKeyCode();
+				boolean pressed = this.events.peekPressed();
+				if (!this.hasPendingInput) {
+					this.pendingInputTime = this.events.peekTime();
+					this.hasPendingInput = true;
+				}
+				this.events.remove();
+
+				if (pressed && !this.keys[keyCode])
+					this.pressedKeys[keyCode] = true;
+				else if (!pressed && this.keys[keyCode])
+					this.releasedKeys[keyCode] = true;
+				this.keys[keyCode] = pressed;
+			}
+			long dropped = this.droppedEvents.get();
+			if (dropped != this.seenDroppedEvents)
+				applyLatestKeys(dropped);
+		}
+
+		for (int keyCode = 0; keyCode < NUM_KEYS; keyCode++)
+			this.updateKeys[keyCode] = this.keys[keyCode]
+					|| this.pressedKeys[keyCode];
+		if (this.recording != null)
+			this.recording.record(this.updateKeys);
+	}
+
+	/**
+	 * Brings the keys up to their latest state on the keyboard, after key
+	 * events were dropped, so no press or release is missed.
+	 * 
+	 * @param dropped
+	 *            Total number of key events dropped so far.
+	 */
+	private void applyLatestKeys(final long dropped) {
+		Core.getLogger().warning(String.format("Key event queue full, %d "
+				+ "key events dropped.", dropped - this.seenDroppedEvents));
+		this.seenDroppedEvents = dropped;
+
+		for (int keyCode = 0; keyCode < NUM_KEYS; keyCode++) {
+			boolean pressed = this.latestKeys.get(keyCode) != 0;
+			if (pressed && !this.keys[keyCode])
+				this.pressedKeys[keyCode] = true;
+			else if (!pressed && this.keys[keyCode])
+				this.releasedKeys[keyCode] = true;
+			this.keys[keyCode] = pressed;
+		}
+	}
+
+	/**
+	 * Checks if key events have been taken by an update since the last
+	 * frame was shown.
+	 * 
+	 * @return True if there are key events not yet on screen.
+	 */
+	public boolean hasPendingInput() {
+		return this.hasPendingInput;
+	}
+
+	/**
+	 * Returns the moment of the oldest key event not yet on screen, and
+	 * marks every key event taken as shown.
+	 * 
+	 * @return Moment of the event, in System.nanoTime() terms.
+	 */
+	public long takePendingInputTime() {
+		this.hasPendingInput = false;
+		return this.pendingInputTime;
+	}
+
+	/**
+	 * Marks a key as pressed until the next update, used by input scripts.
+	 * 
+	 * @param keyCode
+	 *            Key number to press.
+	 */
+	public void pressKey(final int keyCode) {
+		if (keyCode >= 0 && keyCode < NUM_KEYS)
+			this.keys[keyCode] = true;
+	}
+
 	/**
 	 * Returns true if the provided key is currently pressed.
 	 * 
@@ -44,11 +210,34 @@ public final class InputManager implements KeyListener {
 	 * @return Key state.
 	 */
 	public boolean isKeyDown(final int keyCode) {
-		return keys[keyCode];
+		return this.updateKeys[keyCode];
+	}
+
+	/**
+	 * Returns true if the provided key was pressed since the previous update.
+	 * 
+	 * @param keyCode
+	 *            Key number to check.
+	 * @return True if the key was pressed.
+	 */
+	public boolean wasKeyPressed(final int keyCode) {
+		return this.pressedKeys[keyCode];
 	}
 
 	/**
-	 * Changes the state of the key to pressed.
+	 * Returns true if the provided key was released since the previous
+	 * update.
+	 * 
+	 * @param keyCode
+	 *            Key number to check.
+	 * @return True if the key was released.
+	 */
+	public boolean wasKeyReleased(final int keyCode) {
+		return this.releasedKeys[keyCode];
+	}
+
+	/**
+	 * Queues the press of the key for the next update.
 	 * 
 	 * @param key
 	 *            Key pressed.
@@ -56,11 +245,11 @@ public final class InputManager implements KeyListener {
 	@Override
 	public void keyPressed(final KeyEvent key) {
 		if (key.getKeyCode() >= 0 && key.getKeyCode() < NUM_KEYS)
-			keys[key.getKeyCode()] = true;
+			queueEvent(key.getKeyCode(), true);
 	}
 
 	/**
-	 * Changes the state of the key to not pressed.
+	 * Queues the release of the key for the next update.
 	 * 
 	 * @param key
 	 *            Key released.
@@ -68,7 +257,23 @@ public final class InputManager implements KeyListener {
 	@Override
 	public void keyReleased(final KeyEvent key) {
 		if (key.getKeyCode() >= 0 && key.getKeyCode() < NUM_KEYS)
-			keys[key.getKeyCode()] = false;
+			queueEvent(key.getKeyCode(), false);
+	}
+
+	/**
+	 * Keeps the latest state of a key and queues its event for the next
+	 * update. If the queue is full the event is dropped and counted, and
+	 * the next update takes the latest state of the keys instead.
+	 * 
+	 * @param keyCode
+	 *            Key of the event.
+	 * @param pressed
+	 *            True if the key was pressed, false if released.
+	 */
+	private void queueEvent(final int keyCode, final boolean pressed) {
+		this.latestKeys.set(keyCode, pressed ? 1 : 0);
+		if (!this.events.offer(keyCode, pressed, System.nanoTime()))
+			this.droppedEvents.incrementAndGet();
 	}
 
 	/**
@@ -81,4 +286,4 @@ public final class InputManager implements KeyListener {
 	public void keyTyped(final KeyEvent key) {
 
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,367 @@
+package engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recording of the input of a whole game, along with everything else needed
+ * to play it again exactly as it was: the seed, the screen size and the
+ * difficulty settings. The state of the keys is kept update by update,
+ * packed as bits and only stored when it changes.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class InputRecording {
+
+	/** Identifier at the start of every recording file. */
+	private static final int MAGIC = 0x53495250;
+	/** Version of the recording format. */
+	private static final int VERSION = 1;
+	/** Number of recorded keys. */
+	private static final int NUM_KEYS = 256;
+	/** Number of words the key states are packed in. */
+	private static final int WORDS = NUM_KEYS / Long.SIZE;
+
+	/** Seed of the game randomness. */
+	private long seed;
+	/** Width of the game screens. */
+	private int width;
+	/** Height of the game screens. */
+	private int height;
+	/** Difficulty settings of each level. */
+	private List<GameSettings> levels;
+	/** Final state of the game, null until finished. */
+	private GameState gameState;
+
+	/** Changes in the key states, encoded. */
+	private ByteArrayOutputStream changes;
+	/** Stream writing the encoded changes. */
+	private DataOutputStream changesOutput;
+	/** Key states of the last update recorded. */
+	private long[] lastKeys;
+	/** Key states of the update being recorded. */
+	private long[] currentKeys;
+	/** Number of updates recorded. */
+	private long ticks;
+	/** Update of the last change in the key states. */
+	private long lastChangeTick;
+
+	/**
+	 * Constructor, starts an empty recording.
+	 * 
+	 * @param seed
+	 *            Seed of the game randomness.
+	 * @param width
+	 *            Width of the game screens.
+	 * @param height
+	 *            Height of the game screens.
+	 * @param levels
+	 *            Difficulty settings of each level.
+	 */
+	public InputRecording(final long seed, final int width, final int height,
+			final List<GameSettings> levels) {
+		this.seed = seed;
+		this.width = width;
+		this.height = height;
+		this.levels = new ArrayList<GameSettings>(levels);
+		this.changes = new ByteArrayOutputStream();
+		this.changesOutput = new DataOutputStream(this.changes);
+		this.lastKeys = new long[WORDS];
+		this.currentKeys = new long[WORDS];
+		this.ticks = 0;
+		this.lastChangeTick = 0;
+	}
+
+	/**
+	 * Records the state of the keys during an update.
+	 * 
+	 * @param keys
+	 *            State of every key, true if pressed.
+	 */
+	public final void record(final boolean[] keys) {
+		for (int word = 0; word < WORDS; word++) {
+			long bits = 0;
+			int first = word * Long.SIZE;
+			for (int bit = 0; bit < Long.SIZE; bit++)
+				if (keys[first + bit])
+					bits |= 1L << bit;
+			this.currentKeys[word] = bits;
+		}
+
+		int changedWords = 0;
+		for (int word = 0; word < WORDS; word++)
+			if (this.currentKeys[word] != this.lastKeys[word])
+				changedWords |= 1 << word;
+
+		if (changedWords != 0) {
+			try {
+				// Updates since the last change, then the changed words.
+				writeVarLong(this.changesOutput, this.ticks
+						- this.lastChangeTick);
+				this.changesOutput.writeByte(changedWords);
+				for (int word = 0; word < WORDS; word++)
+					if ((changedWords & 1 << word) != 0)
+						this.changesOutput.writeLong(this.currentKeys[word]
+								^ this.lastKeys[word]);
+			} catch (IOException e) {
+				// Writing to memory, never happens.
+				throw new IllegalStateException(e);
+			}
+			long[] swap = this.lastKeys;
+			this.lastKeys = this.currentKeys;
+			this.currentKeys = swap;
+			this.lastChangeTick = this.ticks;
+		}
+		this.ticks++;
+	}
+
+	/**
+	 * Finishes the recording with the final state of the game.
+	 * 
+	 * @param finalState
+	 *            Final state of the game.
+	 */
+	public final void finish(final GameState finalState) {
+		this.gameState = finalState;
+	}
+
+	/**
+	 * Saves the recording to disk.
+	 * 
+	 * @param path
+	 *            Path of the recording file.
+	 * @throws IOException
+	 *             In case of writing the file.
+	 */
+	public final void save(final Path path) throws IOException {
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(path)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(this.seed);
+			output.writeInt(this.width);
+			output.writeInt(this.height);
+
+			output.writeInt(this.levels.size());
+			for (GameSettings level : this.levels) {
+				output.writeInt(level.getFormationWidth());
+				output.writeInt(level.getFormationHeight());
+				output.writeInt(level.getBaseSpeed());
+				output.writeInt(level.getShootingFrecuency());
+			}
+
+			boolean finished = this.gameState != null;
+			output.writeBoolean(finished);
+			if (finished) {
+				output.writeInt(this.gameState.getLevel());
+				output.writeInt(this.gameState.getScore());
+				output.writeInt(this.gameState.getLivesRemaining());
+				output.writeInt(this.gameState.getBulletsShot());
+				output.writeInt(this.gameState.getShipsDestroyed());
+			}
+
+			output.writeLong(this.ticks);
+			output.writeInt(this.changes.size());
+			this.changes.writeTo(output);
+		}
+	}
+
+	/**
+	 * Loads a recording from disk.
+	 * 
+	 * @param path
+	 *            Path of the recording file.
+	 * @return Recording loaded.
+	 * @throws IOException
+	 *             In case of reading the file, or if it is not a recording.
+	 */
+	public static InputRecording load(final Path path) throws IOException {
+		try (DataInputStream input = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(path)))) {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION)
+				throw new IOException(path + " is not an input recording.");
+
+			long seed = input.readLong();
+			int width = input.readInt();
+			int height = input.readInt();
+
+			int levelCount = input.readInt();
+			List<GameSettings> levels = new ArrayList<GameSettings>();
+			for (int i = 0; i < levelCount; i++)
+				levels.add(new GameSettings(input.readInt(), input.readInt(),
+						input.readInt(), input.readInt()));
+
+			InputRecording recording = new InputRecording(seed, width,
+					height, levels);
+			if (input.readBoolean())
+				recording.gameState = new GameState(input.readInt(),
+						input.readInt(), input.readInt(), input.readInt(),
+						input.readInt());
+
+			recording.ticks = input.readLong();
+			byte[] changes = new byte[input.readInt()];
+			input.readFully(changes);
+			recording.changes.write(changes);
+			return recording;
+		}
+	}
+
+	/**
+	 * Creates a script pressing the recorded keys, update by update. Each
+	 * script plays the recording once, from the first update.
+	 * 
+	 * @return Script playing the recording.
+	 */
+	public final InputScript createScript() {
+		final DataInputStream input = new DataInputStream(
+				new ByteArrayInputStream(this.changes.toByteArray()));
+
+		return new InputScript() {
+			/** Key states of the current update. */
+			private long[] keys = new long[WORDS];
+			/** Number of updates played. */
+			private long played = 0;
+			/** Update of the next change in the key states. */
+			private long nextChangeTick = readNextChange(0);
+
+			@Override
+			public void apply(final long tick,
+					final InputManager inputManager) {
+				if (this.played == this.nextChangeTick) {
+					try {
+						int changedWords = input.readUnsignedByte();
+						for (int word = 0; word < WORDS; word++)
+							if ((changedWords & 1 << word) != 0)
+								this.keys[word] ^= input.readLong();
+					} catch (IOException e) {
+						throw new IllegalStateException(e);
+					}
+					this.nextChangeTick = readNextChange(this.played);
+				}
+				this.played++;
+
+				for (int word = 0; word < WORDS; word++) {
+					long bits = this.keys[word];
+					while (bits != 0) {
+						int bit = Long.numberOfTrailingZeros(bits);
+						inputManager.pressKey(word * Long.SIZE + bit);
+						bits &= bits - 1;
+					}
+				}
+			}
+
+			/**
+			 * Reads when the next change in the key states happens.
+			 * 
+			 * @param lastChange
+			 *            Update of the last change.
+			 * @return Update of the next change, -1 if there are no more.
+			 */
+			private long readNextChange(final long lastChange) {
+				try {
+					if (input.available() == 0)
+						return -1;
+					return lastChange + readVarLong(input);
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Writes a non negative number in as few bytes as needed, seven bits
+	 * per byte.
+	 * 
+	 * @param output
+	 *            Stream to write to.
+	 * @param value
+	 *            Number to write.
+	 * @throws IOException
+	 *             In case of writing.
+	 */
+	private static void writeVarLong(final DataOutputStream output,
+			final long value) throws IOException {
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0) {
+			output.writeByte((int) (remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		output.writeByte((int) remaining);
+	}
+
+	/**
+	 * Reads a number written by writeVarLong.
+	 * 
+	 * @param input
+	 *            Stream to read from.
+	 * @return Number read.
+	 * @throws IOException
+	 *             In case of reading.
+	 */
+	private static long readVarLong(final DataInputStream input)
+			throws IOException {
+		long value = 0;
+		int shift = 0;
+		int read;
+		do {
+			read = input.readUnsignedByte();
+			value |= (long) (read & 0x7F) << shift;
+			shift += 7;
+		} while ((read & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * @return the seed
+	 */
+	public final long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return the width
+	 */
+	public final int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height
+	 */
+	public final int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the levels
+	 */
+	public final List<GameSettings> getLevels() {
+		return Collections.unmodifiableList(levels);
+	}
+
+	/**
+	 * @return the final game state, null if not finished
+	 */
+	public final GameState getGameState() {
+		return gameState;
+	}
+
+	/**
+	 * @return the number of updates recorded
+	 */
+	public final long getTicks() {
+		return ticks;
+	}
+}
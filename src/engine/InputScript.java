@@ -0,0 +1,20 @@
+package engine;
+
+/**
+ * Provides input for the game instead of the keyboard, update by update.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public interface InputScript {
+
+	/**
+	 * Presses the keys held down during an update.
+	 * 
+	 * @param tick
+	 *            Number of the update.
+	 * @param inputManager
+	 *            Input manager to press the keys on.
+	 */
+	void apply(long tick, InputManager inputManager);
+}
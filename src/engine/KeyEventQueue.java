@@ -0,0 +1,131 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue of key events passed from the thread receiving them to the game
+ * thread without locks. Only one thread may add events and only one thread
+ * may take them. Events are kept in preallocated arrays, so neither side
+ * allocates.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class KeyEventQueue {
+
+	/** Key codes of the queued events. */
+	private int[] keyCodes;
+	/** Checks if each queued event is a press, or else a release. */
+	private boolean[] presses;
+	/** Moments the queued events happened, in nanoseconds. */
+	private long[] times;
+	/** Mask turning a position into an index of the arrays. */
+	private int mask;
+
+	/** Position of the next event to take, written by the consumer. */
+	private AtomicLong head;
+	/** Position of the next event to add, written by the producer. */
+	private AtomicLong tail;
+	/** Last head seen by the producer. */
+	private long cachedHead;
+	/** Last tail seen by the consumer. */
+	private long cachedTail;
+
+	/**
+	 * Constructor, establishes the queue capacity.
+	 * 
+	 * @param capacity
+	 *            Maximum number of events waiting, rounded up to a power of
+	 *            two.
+	 */
+	public KeyEventQueue(final int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		this.keyCodes = new int[size];
+		this.presses = new boolean[size];
+		this.times = new long[size];
+		this.mask = size - 1;
+		this.head = new AtomicLong();
+		this.tail = new AtomicLong();
+	}
+
+	/**
+	 * Adds an event, from the producer thread.
+	 * 
+	 * @param keyCode
+	 *            Key of the event.
+	 * @param pressed
+	 *            True if the key was pressed, false if released.
+	 * @param time
+	 *            Moment of the event, in nanoseconds.
+	 * @return False if the queue is full and the event was dropped.
+	 */
+	public final boolean offer(final int keyCode, final boolean pressed,
+			final long time) {
+		long position = this.tail.get();
+		if (position - this.cachedHead > this.mask) {
+			this.cachedHead = this.head.get();
+			if (position - this.cachedHead > this.mask)
+				return false;
+		}
+
+		int index = (int) position & this.mask;
+		this.keyCodes[index] = keyCode;
+		this.presses[index] = pressed;
+		this.times[index] = time;
+		// Publishes the event after writing it.
+		this.tail.lazySet(position + 1);
+		return true;
+	}
+
+	/**
+	 * Checks if there are events to take, from the consumer thread.
+	 * 
+	 * @return True if the queue is empty.
+	 */
+	public final boolean isEmpty() {
+		long position = this.head.get();
+		if (position < this.cachedTail)
+			return false;
+		this.cachedTail = this.tail.get();
+		return position >= this.cachedTail;
+	}
+
+	/**
+	 * Getter for the key code of the next event. Only valid if the queue is
+	 * not empty.
+	 * 
+	 * @return Key code of the next event.
+	 */
+	public final int peekKeyCode() {
+		return this.keyCodes[(int) this.head.get() & this.mask];
+	}
+
+	/**
+	 * Checks if the next event is a press. Only valid if the queue is not
+	 * empty.
+	 * 
+	 * @return True if the next event is a press, false if a release.
+	 */
+	public final boolean peekPressed() {
+		return this.presses[(int) this.head.get() & this.mask];
+	}
+
+	/**
+	 * Getter for the moment of the next event. Only valid if the queue is not
+	 * empty.
+	 * 
+	 * @return Moment of the next event, in nanoseconds.
+	 */
+	public final long peekTime() {
+		return this.times[(int) this.head.get() & this.mask];
+	}
+
+	/**
+	 * Takes the next event out of the queue, from the consumer thread. Only
+	 * valid if the queue is not empty.
+	 */
+	public final void remove() {
+		// Frees the slot after reading it.
+		this.head.lazySet(this.head.get() + 1);
+	}
+}
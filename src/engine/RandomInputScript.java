@@ -0,0 +1,63 @@
+package engine;
+
+import java.awt.event.KeyEvent;
+import java.util.Random;
+
+/**
+ * Input script that keeps shooting while moving the ship in random
+ * directions, changing direction from time to time.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class RandomInputScript implements InputScript {
+
+	/** Updates between changes of direction. */
+	private static final int DIRECTION_CHANGE_INTERVAL = 30;
+
+	/** Source of the chosen directions. */
+	private Random random;
+	/** Key held down to move, or 0 if standing still. */
+	private int directionKey;
+
+	/**
+	 * Constructor, establishes the sequence of directions.
+	 * 
+	 * @param seed
+	 *            Seed of the directions chosen.
+	 */
+	public RandomInputScript(final long seed) {
+		this.random = new Random(seed);
+		this.directionKey = 0;
+	}
+
+	/**
+	 * Holds the shooting key and the current direction.
+	 * 
+	 * @param tick
+	 *            Number of the update.
+	 * @param inputManager
+	 *            Input manager to press the keys on.
+	 */
+	@Override
+	public final void apply(final long tick,
+			final InputManager inputManager) {
+		if (tick % DIRECTION_CHANGE_INTERVAL == 0) {
+			switch (this.random.nextInt(3)) {
+			case 0:
+				this.directionKey = KeyEvent.VK_LEFT;
+				break;
+			case 1:
+				this.directionKey = KeyEvent.VK_RIGHT;
+				break;
+			default:
+				this.directionKey = 0;
+				break;
+			}
+		}
+
+		if (this.directionKey != 0)
+			inputManager.pressKey(this.directionKey);
+		inputManager.pressKey(KeyEvent.VK_SPACE);
+	}
+}
@@ -0,0 +1,56 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Plays recorded games again without a frame, as fast as possible, and
+ * checks they end exactly as they did when recorded.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public final class Replayer {
+
+	/**
+	 * Replays every recording given and prints their outcome. Exits with an
+	 * error status if any of them ends differently than recorded.
+	 * 
+	 * @param args
+	 *            Program args: paths of the recordings, "replay" if none.
+	 * @throws IOException
+	 *             In case of reading a recording.
+	 */
+	public static void main(final String[] args) throws IOException {
+		String[] paths = args.length > 0 ? args : new String[] { "replay" };
+		boolean allMatch = true;
+
+		for (String path : paths) {
+			InputRecording recording = InputRecording.load(Paths.get(path));
+			SimulationResult result = Simulator.replay(recording);
+			GameState recorded = recording.getGameState();
+			boolean matches = result.getGameState().equals(recorded);
+			allMatch &= matches;
+
+			System.out.println(String.format("%s: seed %d, %s, "
+					+ "%d of %d frames in %.1f ms (%.0f frames/s), %s", path,
+					recording.getSeed(), result.getGameState(),
+					result.getTicks(), recording.getTicks(),
+					result.getNanos() / 1000000.0,
+					result.getTicksPerSecond(), recorded == null
+							? "not finished when recorded" : matches
+									? "matches recording"
+									: "DIFFERS from recording: " + recorded));
+		}
+
+		if (!allMatch)
+			System.exit(1);
+	}
+
+	/**
+	 * Constructor, not called.
+	 */
+	private Replayer() {
+
+	}
+}
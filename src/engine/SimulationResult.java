@@ -0,0 +1,79 @@
+package engine;
+
+/**
+ * Implements an object that stores the outcome of a simulated game.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class SimulationResult {
+
+	/** Nanoseconds in a second. */
+	private static final double NANOS_PER_SECOND = 1000000000.0;
+
+	/** Seed the game was played with. */
+	private long seed;
+	/** State of the game when it finished. */
+	private GameState gameState;
+	/** Number of updates simulated. */
+	private long ticks;
+	/** Real time the simulation took, in nanoseconds. */
+	private long nanos;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param seed
+	 *            Seed the game was played with.
+	 * @param gameState
+	 *            State of the game when it finished.
+	 * @param ticks
+	 *            Number of updates simulated.
+	 * @param nanos
+	 *            Real time the simulation took, in nanoseconds.
+	 */
+	public SimulationResult(final long seed, final GameState gameState,
+			final long ticks, final long nanos) {
+		this.seed = seed;
+		this.gameState = gameState;
+		this.ticks = ticks;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * @return the seed
+	 */
+	public final long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return the gameState
+	 */
+	public final GameState getGameState() {
+		return gameState;
+	}
+
+	/**
+	 * @return the ticks
+	 */
+	public final long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * @return the nanos
+	 */
+	public final long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * Returns the number of updates simulated for each second of real time.
+	 * 
+	 * @return Simulated frames per second.
+	 */
+	public final double getTicksPerSecond() {
+		return this.ticks * NANOS_PER_SECOND / Math.max(1, this.nanos);
+	}
+}
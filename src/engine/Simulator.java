@@ -0,0 +1,113 @@
+package engine;
+
+import java.util.List;
+
+/**
+ * Plays whole games without a frame, as fast as possible, with input
+ * provided by scripts.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public final class Simulator {
+
+	/**
+	 * Simulates a number of games, each one with a random input script, and
+	 * prints their results.
+	 * 
+	 * @param args
+	 *            Program args: number of games and first seed, optional.
+	 */
+	public static void main(final String[] args) {
+		int games = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+		long firstSeed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+		for (long seed = firstSeed; seed < firstSeed + games; seed++) {
+			SimulationResult result = simulate(seed,
+					new RandomInputScript(seed));
+			GameState gameState = result.getGameState();
+
+			System.out.println(String.format("seed %d: level %d, score %d, "
+					+ "%d lives, %d bullets shot, %d ships destroyed, "
+					+ "%d frames in %.1f ms (%.0f frames/s)", seed,
+					gameState.getLevel() - 1, gameState.getScore(),
+					gameState.getLivesRemaining(), gameState.getBulletsShot(),
+					gameState.getShipsDestroyed(), result.getTicks(),
+					result.getNanos() / 1000000.0,
+					result.getTicksPerSecond()));
+		}
+	}
+
+	/**
+	 * Constructor, not called.
+	 */
+	private Simulator() {
+
+	}
+
+	/**
+	 * Simulates a whole normal game.
+	 * 
+	 * @param seed
+	 *            Seed of the game randomness.
+	 * @param script
+	 *            Script providing the player's input.
+	 * @return Outcome of the game.
+	 */
+	public static SimulationResult simulate(final long seed,
+			final InputScript script) {
+		return simulate(seed, script, Core.getGameSettings());
+	}
+
+	/**
+	 * Simulates a whole game on the current thread, in a session of its own.
+	 * 
+	 * @param seed
+	 *            Seed of the game randomness.
+	 * @param script
+	 *            Script providing the player's input.
+	 * @param levels
+	 *            Difficulty settings of each level.
+	 * @return Outcome of the game.
+	 */
+	public static SimulationResult simulate(final long seed,
+			final InputScript script, final List<GameSettings> levels) {
+		GameContext previousContext = Core.getContext();
+		GameContext context = GameContext.createHeadless(seed, script);
+
+		Core.setContext(context);
+		try {
+			long start = System.nanoTime();
+			GameState gameState = Core.playHeadlessGame(levels);
+			return new SimulationResult(seed, gameState,
+					context.getClock().getTicks(), System.nanoTime() - start);
+		} finally {
+			Core.setContext(previousContext);
+		}
+	}
+
+	/**
+	 * Plays a recorded game again on the current thread, in a session of its
+	 * own, with the recorded seed, screen size, difficulty and input.
+	 * 
+	 * @param recording
+	 *            Recording of the game.
+	 * @return Outcome of the replayed game.
+	 */
+	public static SimulationResult replay(final InputRecording recording) {
+		GameContext previousContext = Core.getContext();
+		GameContext context = GameContext.createHeadless(recording.getSeed(),
+				recording.createScript());
+
+		Core.setContext(context);
+		try {
+			long start = System.nanoTime();
+			GameState gameState = Core.playHeadlessGame(recording.getWidth(),
+					recording.getHeight(), recording.getLevels());
+			return new SimulationResult(recording.getSeed(), gameState,
+					context.getClock().getTicks(), System.nanoTime() - start);
+		} finally {
+			Core.setContext(previousContext);
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package engine;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import engine.DrawManager.SpriteType;
+
+/**
+ * Binary pack of every sprite of the game. A header lists each sprite by
+ * name, with its size and the offset of its image, so sprites are found
+ * regardless of their order. Images are stored one column after another,
+ * eight pixels per byte, each column starting on a new byte. The pack is
+ * created from the text sprites by running this class.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public final class SpritePack {
+
+	/** Identifier at the start of every sprite pack. */
+	private static final int MAGIC = 0x53495350;
+	/** Version of the pack format. */
+	private static final int VERSION = 1;
+	/** Size in bytes of the start of the header, before the sprites. */
+	private static final int HEADER_SIZE = 12;
+	/** Size in bytes of a sprite in the header, not counting its name. */
+	private static final int ENTRY_SIZE = 10;
+
+	/**
+	 * Converts the text sprites to a sprite pack.
+	 * 
+	 * @param args
+	 *            Program args: path of the text sprites, "res/graphics" if
+	 *            none, and path of the pack, "res/graphics.bin" if none.
+	 * @throws IOException
+	 *             In case of reading the sprites or writing the pack.
+	 */
+	public static void main(final String[] args) throws IOException {
+		Path textPath = Paths.get(args.length > 0 ? args[0]
+				: "res/graphics");
+		Path packPath = Paths.get(args.length > 1 ? args[1]
+				: "res/graphics.bin");
+
+		Map<SpriteType, boolean[][]> spriteMap = DrawManager
+				.createSpriteMap();
+		try (InputStream input = new BufferedInputStream(
+				Files.newInputStream(textPath))) {
+			FileManager.readSpriteText(input, spriteMap);
+		}
+		write(spriteMap, packPath);
+
+		System.out.println(String.format("Packed %d sprites from %s into "
+				+ "%s, %d bytes.", spriteMap.size(), textPath, packPath,
+				Files.size(packPath)));
+	}
+
+	/**
+	 * Constructor, not called.
+	 */
+	private SpritePack() {
+
+	}
+
+	/**
+	 * Writes sprites to a pack.
+	 * 
+	 * @param spriteMap
+	 *            Sprites to write.
+	 * @param path
+	 *            Path of the pack.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public static void write(final Map<SpriteType, boolean[][]> spriteMap,
+			final Path path) throws IOException {
+		int offset = HEADER_SIZE;
+		for (SpriteType spriteType : spriteMap.keySet())
+			offset += ENTRY_SIZE + nameOf(spriteType).length;
+
+		try (DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(path)))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(spriteMap.size());
+
+			for (Map.Entry<SpriteType, boolean[][]> sprite : spriteMap
+					.entrySet()) {
+				byte[] name = nameOf(sprite.getKey());
+				boolean[][] image = sprite.getValue();
+				output.writeShort(name.length);
+				output.write(name);
+				output.writeShort(image.length);
+				output.writeShort(image[0].length);
+				output.writeInt(offset);
+				offset += image.length * bytesPerColumn(image[0].length);
+			}
+
+			for (boolean[][] image : spriteMap.values())
+				for (boolean[] column : image)
+					for (int i = 0; i < column.length; i += Byte.SIZE) {
+						int bits = 0;
+						for (int j = 0; j < Byte.SIZE; j++)
+							if (i + j < column.length && column[i + j])
+								bits |= 0x80 >>> j;
+						output.writeByte(bits);
+					}
+		}
+	}
+
+	/**
+	 * Reads sprites from a pack. Sprites in the pack and not in the map are
+	 * ignored.
+	 * 
+	 * @param buffer
+	 *            Whole contents of the pack.
+	 * @param spriteMap
+	 *            Mapping of sprite type and empty boolean matrix that will
+	 *            contain the image.
+	 * @throws IOException
+	 *             If the pack is not valid, or a sprite is missing or has a
+	 *             different size.
+	 */
+	public static void read(final ByteBuffer buffer,
+			final Map<SpriteType, boolean[][]> spriteMap)
+			throws IOException {
+		try {
+			if (buffer.getInt() != MAGIC)
+				throw new IOException("Not a sprite pack.");
+			int version = buffer.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported sprite pack version "
+						+ version + ".");
+
+			int spriteCount = buffer.getInt();
+			Set<SpriteType> missing = EnumSet.noneOf(SpriteType.class);
+			missing.addAll(spriteMap.keySet());
+			for (int i = 0; i < spriteCount; i++) {
+				byte[] name = new byte[buffer.getShort() & 0xFFFF];
+				buffer.get(name);
+				int width = buffer.getShort();
+				int height = buffer.getShort();
+				int offset = buffer.getInt();
+
+				SpriteType spriteType = typeOf(name);
+				boolean[][] image = spriteType == null ? null : spriteMap
+						.get(spriteType);
+				if (image == null)
+					continue;
+				if (image.length != width || image[0].length != height)
+					throw new IOException("Sprite " + spriteType + " is "
+							+ width + "x" + height + " in the pack, "
+							+ image.length + "x" + image[0].length
+							+ " expected.");
+
+				int columnSize = bytesPerColumn(height);
+				for (int x = 0; x < width; x++) {
+					int columnStart = offset + x * columnSize;
+					for (int y = 0; y < height; y++) {
+						int bits = buffer.get(columnStart + y / Byte.SIZE);
+						image[x][y] = (bits & (0x80 >>> (y % Byte.SIZE))) != 0;
+					}
+				}
+				missing.remove(spriteType);
+			}
+
+			if (!missing.isEmpty())
+				throw new IOException("Sprites missing from the pack: "
+						+ missing + ".");
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IOException("Truncated sprite pack.", e);
+		}
+	}
+
+	/**
+	 * Returns the name a sprite is stored with.
+	 * 
+	 * @param spriteType
+	 *            Sprite type.
+	 * @return Name of the sprite.
+	 */
+	private static byte[] nameOf(final SpriteType spriteType) {
+		return spriteType.name().getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Returns the sprite type stored with a name.
+	 * 
+	 * @param name
+	 *            Name of the sprite.
+	 * @return Sprite type, null if there is none with that name.
+	 */
+	private static SpriteType typeOf(final byte[] name) {
+		try {
+			return SpriteType.valueOf(new String(name,
+					StandardCharsets.US_ASCII));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the size of a column of a sprite image.
+	 * 
+	 * @param length
+	 *            Pixels in the column.
+	 * @return Bytes in the column.
+	 */
+	private static int bytesPerColumn(final int length) {
+		return (length + Byte.SIZE - 1) / Byte.SIZE;
+	}
+}
@@ -0,0 +1,56 @@
+package engine;
+
+/**
+ * Clock following the system time, sampled once per update so every check
+ * during the same update sees the same time.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class SystemClock implements Clock {
+
+	/** System time at the start of the current update. */
+	private long time;
+	/** Number of updates elapsed. */
+	private long ticks;
+
+	/**
+	 * Constructor, samples the current system time.
+	 */
+	public SystemClock() {
+		this.time = System.currentTimeMillis();
+		this.ticks = 0;
+	}
+
+	/**
+	 * Returns the system time at the start of the current update.
+	 * 
+	 * @return Current time, in milliseconds.
+	 */
+	@Override
+	public final long getTimeMillis() {
+		return this.time;
+	}
+
+	/**
+	 * Samples the system time.
+	 * 
+	 * @param ticksPerSecond
+	 *            Number of updates run per second, ignored.
+	 */
+	@Override
+	public final void tick(final int ticksPerSecond) {
+		this.time = System.currentTimeMillis();
+		this.ticks++;
+	}
+
+	/**
+	 * Getter for the number of updates elapsed.
+	 * 
+	 * @return Updates signaled to the clock.
+	 */
+	@Override
+	public final long getTicks() {
+		return this.ticks;
+	}
+}
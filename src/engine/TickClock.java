@@ -0,0 +1,80 @@
+package engine;
+
+/**
+ * Clock that only advances with the updates of the game logic, or when
+ * manually told to. Game logic runs the same regardless of how fast the
+ * updates are run.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public class TickClock implements Clock {
+
+	/** Nanoseconds in a second. */
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/** Elapsed time, in nanoseconds. */
+	private long nanos;
+	/** Fraction of nanosecond elapsed, in 1/ticksPerSecond units. */
+	private long remainder;
+	/** Number of updates elapsed. */
+	private long ticks;
+
+	/**
+	 * Constructor, starts the clock at zero.
+	 */
+	public TickClock() {
+		this.nanos = 0;
+		this.remainder = 0;
+		this.ticks = 0;
+	}
+
+	/**
+	 * Returns the time elapsed in updates.
+	 * 
+	 * @return Current time, in milliseconds.
+	 */
+	@Override
+	public final long getTimeMillis() {
+		return this.nanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Advances the clock by the duration of an update.
+	 * 
+	 * @param ticksPerSecond
+	 *            Number of updates run per second.
+	 */
+	@Override
+	public final void tick(final int ticksPerSecond) {
+		this.nanos += NANOS_PER_SECOND / ticksPerSecond;
+		this.remainder += NANOS_PER_SECOND % ticksPerSecond;
+		if (this.remainder >= ticksPerSecond) {
+			this.nanos++;
+			this.remainder -= ticksPerSecond;
+		}
+		this.ticks++;
+	}
+
+	/**
+	 * Advances the clock by a given time, without counting an update.
+	 * 
+	 * @param milliseconds
+	 *            Time to advance.
+	 */
+	public final void advance(final long milliseconds) {
+		this.nanos += milliseconds * NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Getter for the number of updates elapsed.
+	 * 
+	 * @return Updates counted by the clock.
+	 */
+	@Override
+	public final long getTicks() {
+		return this.ticks;
+	}
+}
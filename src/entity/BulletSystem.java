@@ -0,0 +1,208 @@
+package entity;
+
+import java.util.Arrays;
+
+/**
+ * Stores every bullet on screen as parallel arrays of primitives. Removed
+ * bullets are replaced by the last one, so bullets stay packed at the start
+ * of the arrays and their order changes on removal.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public final class BulletSystem {
+
+	/** Owner of bullets shot by the player. */
+	public static final int PLAYER = 0;
+	/** Owner of bullets shot by enemies. */
+	public static final int ENEMY = 1;
+	/** Default number of bullets stored before growing. */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	/** Position in the x-axis of the upper left corner of each bullet. */
+	private int[] positionX;
+	/** Position in the y-axis of the upper left corner of each bullet. */
+	private int[] positionY;
+	/** Speed of each bullet, positive is down. */
+	private int[] speed;
+	/** Ship type that shot each bullet. */
+	private int[] owner;
+	/** Number of bullets stored. */
+	private int count;
+	/** Maximum number of bullets stored at the same time. */
+	private int highWaterMark;
+	/** Bullet entity describing a stored bullet, shared by all of them. */
+	private Bullet view;
+
+	/**
+	 * Constructor, creates an empty system with the default capacity.
+	 */
+	public BulletSystem() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor, creates an empty system.
+	 * 
+	 * @param capacity
+	 *            Number of bullets stored before growing.
+	 */
+	public BulletSystem(final int capacity) {
+		this.positionX = new int[capacity];
+		this.positionY = new int[capacity];
+		this.speed = new int[capacity];
+		this.owner = new int[capacity];
+		this.count = 0;
+		this.highWaterMark = 0;
+		this.view = new Bullet(0, 0, 0);
+	}
+
+	/**
+	 * Adds a bullet.
+	 * 
+	 * @param centerX
+	 *            Position of the center of the bullet in the X axis.
+	 * @param positionY
+	 *            Position of the bullet in the Y axis.
+	 * @param bulletSpeed
+	 *            Speed of the bullet, positive or negative depending on
+	 *            direction - positive is down.
+	 * @param bulletOwner
+	 *            Ship type that shot the bullet, PLAYER or ENEMY.
+	 */
+	public void add(final int centerX, final int positionY,
+			final int bulletSpeed, final int bulletOwner) {
+		if (this.count == this.positionX.length)
+			grow();
+
+		this.positionX[this.count] = centerX - this.view.getWidth() / 2;
+		this.positionY[this.count] = positionY;
+		this.speed[this.count] = bulletSpeed;
+		this.owner[this.count] = bulletOwner;
+		this.count++;
+		this.highWaterMark = Math.max(this.highWaterMark, this.count);
+	}
+
+	/**
+	 * Doubles the number of bullets that can be stored.
+	 */
+	private void grow() {
+		int capacity = Math.max(1, this.positionX.length * 2);
+		this.positionX = Arrays.copyOf(this.positionX, capacity);
+		this.positionY = Arrays.copyOf(this.positionY, capacity);
+		this.speed = Arrays.copyOf(this.speed, capacity);
+		this.owner = Arrays.copyOf(this.owner, capacity);
+	}
+
+	/**
+	 * Removes a bullet, moving the last one to its place.
+	 * 
+	 * @param index
+	 *            Index of the bullet to remove.
+	 */
+	public void remove(final int index) {
+		int last = --this.count;
+		this.positionX[index] = this.positionX[last];
+		this.positionY[index] = this.positionY[last];
+		this.speed[index] = this.speed[last];
+		this.owner[index] = this.owner[last];
+	}
+
+	/**
+	 * Removes every bullet.
+	 */
+	public void clear() {
+		this.count = 0;
+	}
+
+	/**
+	 * Moves a bullet according to its speed.
+	 * 
+	 * @param index
+	 *            Index of the bullet to move.
+	 * @return New position of the bullet in the Y axis.
+	 */
+	public int move(final int index) {
+		this.positionY[index] += this.speed[index];
+		return this.positionY[index];
+	}
+
+	/**
+	 * Returns an entity describing a bullet, for drawing and collision
+	 * checks. The same entity is reused for every bullet, so it is only
+	 * valid until the next call.
+	 * 
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Entity describing the bullet.
+	 */
+	public Bullet getView(final int index) {
+		this.view.setPositionX(this.positionX[index]);
+		this.view.setPositionY(this.positionY[index]);
+		this.view.setSpeed(this.speed[index]);
+		this.view.setSprite();
+		return this.view;
+	}
+
+	/**
+	 * Getter for the number of bullets stored.
+	 * 
+	 * @return Number of bullets.
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Getter for the maximum number of bullets stored at the same time.
+	 * 
+	 * @return High water mark of bullets stored.
+	 */
+	public int getHighWaterMark() {
+		return this.highWaterMark;
+	}
+
+	/**
+	 * Getter for the position in the x-axis of a bullet.
+	 * 
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Position of the bullet in the X axis.
+	 */
+	public int getPositionX(final int index) {
+		return this.positionX[index];
+	}
+
+	/**
+	 * Getter for the position in the y-axis of a bullet.
+	 * 
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Position of the bullet in the Y axis.
+	 */
+	public int getPositionY(final int index) {
+		return this.positionY[index];
+	}
+
+	/**
+	 * Getter for the speed of a bullet.
+	 * 
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Speed of the bullet.
+	 */
+	public int getSpeed(final int index) {
+		return this.speed[index];
+	}
+
+	/**
+	 * Getter for the ship type that shot a bullet.
+	 * 
+	 * @param index
+	 *            Index of the bullet.
+	 * @return PLAYER or ENEMY.
+	 */
+	public int getOwner(final int index) {
+		return this.owner[index];
+	}
+}
@@ -2,8 +2,6 @@ package entity;
 
 import java.awt.Color;
 
-import engine.Cooldown;
-import engine.Core;
 import engine.DrawManager.SpriteType;
 
 /**
@@ -22,13 +20,34 @@ public class EnemyShip extends Entity {
 	private static final int C_TYPE_POINTS = 30;
 	/** Point value of a bonus enemy. */
 	private static final int BONUS_TYPE_POINTS = 100;
+	/** Number of animation phases. */
+	public static final int ANIMATION_PHASES = 2;
+	/** Sprite of each base sprite type in each animation phase. */
+	private static final SpriteType[][] ANIMATION_FRAMES =
+			new SpriteType[SpriteType.values().length][];
 
-	/** Cooldown between sprite changes. */
-	private Cooldown animationCooldown;
+	static {
+		for (SpriteType spriteType : SpriteType.values())
+			ANIMATION_FRAMES[spriteType.ordinal()] = new SpriteType[] {
+					spriteType, spriteType };
+		ANIMATION_FRAMES[SpriteType.EnemyShipA1.ordinal()] = new SpriteType[] {
+				SpriteType.EnemyShipA1, SpriteType.EnemyShipA2 };
+		ANIMATION_FRAMES[SpriteType.EnemyShipB1.ordinal()] = new SpriteType[] {
+				SpriteType.EnemyShipB1, SpriteType.EnemyShipB2 };
+		ANIMATION_FRAMES[SpriteType.EnemyShipC1.ordinal()] = new SpriteType[] {
+				SpriteType.EnemyShipC1, SpriteType.EnemyShipC2 };
+	}
+
+	/** Sprite type of the first animation phase. */
+	private SpriteType baseSpriteType;
 	/** Checks if the ship has been hit by a bullet. */
 	private boolean isDestroyed;
 	/** Values of the ship, in points, when destroyed. */
 	private int pointValue;
+	/** Column of the formation the ship belongs to, -1 if none. */
+	private int column;
+	/** Row of the formation the ship belongs to, -1 if none. */
+	private int row;
 
 	/**
 	 * Constructor, establishes the ship's properties.
@@ -39,13 +58,19 @@ public class EnemyShip extends Entity {
 	 *            Initial position of the ship in the Y axis.
 	 * @param spriteType
 	 *            Sprite type, image corresponding to the ship.
+	 * @param column
+	 *            Column of the formation the ship belongs to.
+	 * @param row
+	 *            Row of the formation the ship belongs to.
 	 */
 	public EnemyShip(final int positionX, final int positionY,
-			final SpriteType spriteType) {
+			final SpriteType spriteType, final int column, final int row) {
 		super(positionX, positionY, 12 * 2, 8 * 2, Color.WHITE);
 
 		this.spriteType = spriteType;
-		this.animationCooldown = Core.getCooldown(500);
+		this.baseSpriteType = spriteType;
+		this.column = column;
+		this.row = row;
 		this.isDestroyed = false;
 
 		switch (this.spriteType) {
@@ -75,8 +100,11 @@ public class EnemyShip extends Entity {
 		super(-32, 60, 16 * 2, 7 * 2, Color.RED);
 
 		this.spriteType = SpriteType.EnemyShipSpecial;
+		this.baseSpriteType = this.spriteType;
 		this.isDestroyed = false;
 		this.pointValue = BONUS_TYPE_POINTS;
+		this.column = -1;
+		this.row = -1;
 	}
 
 	/**
@@ -88,6 +116,24 @@ public class EnemyShip extends Entity {
 		return this.pointValue;
 	}
 
+	/**
+	 * Getter for the column of the formation the ship belongs to.
+	 * 
+	 * @return Column of the ship, -1 if not part of a formation.
+	 */
+	public final int getColumn() {
+		return this.column;
+	}
+
+	/**
+	 * Getter for the row of the formation the ship belongs to.
+	 * 
+	 * @return Row of the ship, -1 if not part of a formation.
+	 */
+	public final int getRow() {
+		return this.row;
+	}
+
 	/**
 	 * Moves the ship the specified distance.
 	 * 
@@ -103,34 +149,15 @@ public class EnemyShip extends Entity {
 
 	/**
 	 * Updates attributes, mainly used for animation purposes.
+	 * 
+	 * @param animationPhase
+	 *            Animation phase shared by all the ships, between 0 and
+	 *            ANIMATION_PHASES - 1.
 	 */
-	public final void update() {
-		if (this.animationCooldown.checkFinished()) {
-			this.animationCooldown.reset();
-
-			switch (this.spriteType) {
-			case EnemyShipA1:
-				this.spriteType = SpriteType.EnemyShipA2;
-				break;
-			case EnemyShipA2:
-				this.spriteType = SpriteType.EnemyShipA1;
-				break;
-			case EnemyShipB1:
-				this.spriteType = SpriteType.EnemyShipB2;
-				break;
-			case EnemyShipB2:
-				this.spriteType = SpriteType.EnemyShipB1;
-				break;
-			case EnemyShipC1:
-				this.spriteType = SpriteType.EnemyShipC2;
-				break;
-			case EnemyShipC2:
-				this.spriteType = SpriteType.EnemyShipC1;
-				break;
-			default:
-				break;
-			}
-		}
+	public final void update(final int animationPhase) {
+		if (!this.isDestroyed)
+			this.spriteType = ANIMATION_FRAMES[this.baseSpriteType
+					.ordinal()][animationPhase];
 	}
 
 	/**
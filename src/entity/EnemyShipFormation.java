@@ -1,10 +1,9 @@
 package entity;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Set;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import screen.Screen;
@@ -12,6 +11,7 @@ import engine.Cooldown;
 import engine.Core;
 import engine.DrawManager;
 import engine.DrawManager.SpriteType;
+import engine.EventJournal;
 import engine.GameSettings;
 
 /**
@@ -48,6 +48,10 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	private static final int DESCENT_DISTANCE = 20;
 	/** Minimum speed allowed. */
 	private static final int MINIMUM_SPEED = 10;
+	/** Time between changes of the ships' sprites. */
+	private static final int ANIMATION_INTERVAL = 500;
+	/** Maximum number of ships high, one bit per row in a long. */
+	private static final int MAX_SHIPS_HIGH = 64;
 
 	/** DrawManager instance. */
 	private DrawManager drawManager;
@@ -55,11 +59,38 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	private Logger logger;
 	/** Screen to draw ships on. */
 	private Screen screen;
+	/** Source of randomness for choosing shooters. */
+	private Random random;
 
-	/** List of enemy ships forming the formation. */
-	private List<List<EnemyShip>> enemyShips;
+	/**
+	 * Ships forming the formation, indexed by their column and row, column by
+	 * column, null when removed.
+	 */
+	private EnemyShip[] grid;
+	/** Ships alive in each column, one bit per row. */
+	private long[] aliveRows;
+	/** Destroyed ships still shown in each column, one bit per row. */
+	private long[] explodingRows;
+	/** Number of ships shown, alive or exploding, in each row. */
+	private int[] rowCounts;
+	/** First column with ships shown. */
+	private int leftColumn;
+	/** Last column with ships shown. */
+	private int rightColumn;
+	/** First row with ships shown. */
+	private int topRow;
+	/** Last row with ships shown. */
+	private int bottomRow;
+	/** Position in the x-axis of the first cell of the grid. */
+	private int gridPositionX;
+	/** Position in the y-axis of the first cell of the grid. */
+	private int gridPositionY;
 	/** Minimum time between shots. */
 	private Cooldown shootingCooldown;
+	/** Time between changes of the ships' sprites. */
+	private Cooldown animationCooldown;
+	/** Animation phase shown by every ship. */
+	private int animationPhase;
 	/** Number of ships in the formation - horizontally. */
 	private int nShipsWide;
 	/** Number of ships in the formation - vertically. */
@@ -90,8 +121,12 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	private int shipWidth;
 	/** Height of one ship. */
 	private int shipHeight;
-	/** List of ships that are able to shoot. */
-	private List<EnemyShip> shooters;
+	/** Columns with ships able to shoot, the first shooterCount ones. */
+	private int[] shooterColumns;
+	/** Place of each column in shooterColumns, -1 if not able to shoot. */
+	private int[] shooterIndex;
+	/** Number of columns with ships able to shoot. */
+	private int shooterCount;
 	/** Number of not destroyed ships. */
 	private int shipCount;
 
@@ -114,7 +149,7 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	public EnemyShipFormation(final GameSettings gameSettings) {
 		this.drawManager = Core.getDrawManager();
 		this.logger = Core.getLogger();
-		this.enemyShips = new ArrayList<List<EnemyShip>>();
+		this.random = Core.getRandom();
 		this.currentDirection = Direction.RIGHT;
 		this.movementInterval = 0;
 		this.nShipsWide = gameSettings.getFormationWidth();
@@ -126,17 +161,27 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 		this.movementSpeed = this.baseSpeed;
 		this.positionX = INIT_POS_X;
 		this.positionY = INIT_POS_Y;
-		this.shooters = new ArrayList<EnemyShip>();
+		this.animationCooldown = Core.getCooldown(ANIMATION_INTERVAL);
+		this.animationPhase = 0;
 		SpriteType spriteType;
 
+		if (this.nShipsHigh > MAX_SHIPS_HIGH)
+			throw new IllegalArgumentException("Formations can't be more than "
+					+ MAX_SHIPS_HIGH + " ships high.");
+
 		this.logger.info("Initializing " + nShipsWide + "x" + nShipsHigh
 				+ " ship formation in (" + positionX + "," + positionY + ")");
 
-		// Each sub-list is a column on the formation.
-		for (int i = 0; i < this.nShipsWide; i++)
-			this.enemyShips.add(new ArrayList<EnemyShip>());
+		this.grid = new EnemyShip[this.nShipsWide * this.nShipsHigh];
+		this.aliveRows = new long[this.nShipsWide];
+		this.explodingRows = new long[this.nShipsWide];
+		this.rowCounts = new int[this.nShipsHigh];
+		this.shooterColumns = new int[this.nShipsWide];
+		this.shooterIndex = new int[this.nShipsWide];
+		this.gridPositionX = positionX;
+		this.gridPositionY = positionY;
 
-		for (List<EnemyShip> column : this.enemyShips) {
+		for (int column = 0; column < this.nShipsWide; column++) {
 			for (int i = 0; i < this.nShipsHigh; i++) {
 				if (i / (float) this.nShipsHigh < PROPORTION_C)
 					spriteType = SpriteType.EnemyShipC1;
@@ -146,24 +191,29 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 				else
 					spriteType = SpriteType.EnemyShipA1;
 
-				column.add(new EnemyShip((SEPARATION_DISTANCE 
-						* this.enemyShips.indexOf(column))
-								+ positionX, (SEPARATION_DISTANCE * i)
-								+ positionY, spriteType));
+				this.grid[column * this.nShipsHigh + i] = new EnemyShip(
+						(SEPARATION_DISTANCE * column) + positionX,
+						(SEPARATION_DISTANCE * i) + positionY, spriteType,
+						column, i);
+				this.aliveRows[column] |= 1L << i;
+				this.rowCounts[i]++;
 				this.shipCount++;
 			}
-		}
 
-		this.shipWidth = this.enemyShips.get(0).get(0).getWidth();
-		this.shipHeight = this.enemyShips.get(0).get(0).getHeight();
+			// Every column starts with its bottom ship as shooter.
+			this.shooterColumns[column] = column;
+			this.shooterIndex[column] = column;
+		}
+		this.shooterCount = this.nShipsWide;
 
-		this.width = (this.nShipsWide - 1) * SEPARATION_DISTANCE
-				+ this.shipWidth;
-		this.height = (this.nShipsHigh - 1) * SEPARATION_DISTANCE
-				+ this.shipHeight;
+		this.shipWidth = this.grid[0].getWidth();
+		this.shipHeight = this.grid[0].getHeight();
 
-		for (List<EnemyShip> column : this.enemyShips)
-			this.shooters.add(column.get(column.size() - 1));
+		this.leftColumn = 0;
+		this.rightColumn = this.nShipsWide - 1;
+		this.topRow = 0;
+		this.bottomRow = this.nShipsHigh - 1;
+		updateBounds();
 	}
 
 	/**
@@ -180,8 +230,8 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	 * Draws every individual component of the formation.
 	 */
 	public final void draw() {
-		for (List<EnemyShip> column : this.enemyShips)
-			for (EnemyShip enemyShip : column)
+		for (EnemyShip enemyShip : this.grid)
+			if (enemyShip != null)
 				drawManager.drawEntity(enemyShip, enemyShip.getPositionX(),
 						enemyShip.getPositionY());
 	}
@@ -195,8 +245,6 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 					shootingVariance);
 			this.shootingCooldown.reset();
 		}
-		
-		cleanUp();
 
 		int movementX = 0;
 		int movementY = 0;
@@ -221,30 +269,30 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 				if (isAtHorizontalAltitude)
 					if (previousDirection == Direction.RIGHT) {
 						currentDirection = Direction.LEFT;
-						this.logger.info("Formation now moving left 1");
+						this.logger.fine("Formation now moving left 1");
 					} else {
 						currentDirection = Direction.RIGHT;
-						this.logger.info("Formation now moving right 2");
+						this.logger.fine("Formation now moving right 2");
 					}
 			} else if (currentDirection == Direction.LEFT) {
 				if (isAtLeftSide)
 					if (!isAtBottom) {
 						previousDirection = currentDirection;
 						currentDirection = Direction.DOWN;
-						this.logger.info("Formation now moving down 3");
+						this.logger.fine("Formation now moving down 3");
 					} else {
 						currentDirection = Direction.RIGHT;
-						this.logger.info("Formation now moving right 4");
+						this.logger.fine("Formation now moving right 4");
 					}
 			} else {
 				if (isAtRightSide)
 					if (!isAtBottom) {
 						previousDirection = currentDirection;
 						currentDirection = Direction.DOWN;
-						this.logger.info("Formation now moving down 5");
+						this.logger.fine("Formation now moving down 5");
 					} else {
 						currentDirection = Direction.LEFT;
-						this.logger.info("Formation now moving left 6");
+						this.logger.fine("Formation now moving left 6");
 					}
 			}
 
@@ -257,88 +305,166 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 
 			positionX += movementX;
 			positionY += movementY;
+			this.gridPositionX += movementX;
+			this.gridPositionY += movementY;
 
 			// Cleans explosions.
-			List<EnemyShip> destroyed;
-			for (List<EnemyShip> column : this.enemyShips) {
-				destroyed = new ArrayList<EnemyShip>();
-				for (EnemyShip ship : column) {
-					if (ship != null && ship.isDestroyed()) {
-						destroyed.add(ship);
-						this.logger.info("Removed enemy "
-								+ column.indexOf(ship) + " from column "
-								+ this.enemyShips.indexOf(column));
-					}
+			boolean removed = false;
+			for (int column = 0; column < this.nShipsWide; column++) {
+				long exploding = this.explodingRows[column];
+				while (exploding != 0) {
+					int row = Long.numberOfTrailingZeros(exploding);
+					exploding &= exploding - 1;
+					this.grid[column * this.nShipsHigh + row] = null;
+					this.rowCounts[row]--;
+					removed = true;
+					if (this.logger.isLoggable(Level.FINE))
+						this.logger.fine("Removed enemy " + row
+								+ " from column " + column);
 				}
-				column.removeAll(destroyed);
+				this.explodingRows[column] = 0;
+			}
+			if (removed)
+				shrinkBounds();
+
+			// All ships change sprites at the same time.
+			if (this.animationCooldown.checkFinished()) {
+				this.animationCooldown.reset();
+				this.animationPhase = (this.animationPhase + 1)
+						% EnemyShip.ANIMATION_PHASES;
 			}
 
-			for (List<EnemyShip> column : this.enemyShips)
-				for (EnemyShip enemyShip : column) {
+			for (EnemyShip enemyShip : this.grid)
+				if (enemyShip != null) {
 					enemyShip.move(movementX, movementY);
-					enemyShip.update();
+					enemyShip.update(this.animationPhase);
 				}
 		}
 	}
 
 	/**
-	 * Cleans empty columns, adjusts the width and height of the formation.
+	 * Finds the ships of the formation that might overlap an entity, looking
+	 * only at the grid cells the entity covers. Ships are candidates,
+	 * collision must still be checked on each of them.
+	 * 
+	 * An entity whose size plus a ship's, plus two pixels, is less than the
+	 * distance between ships covers at most two columns and two rows, so
+	 * four places in candidates are enough. Bullets and enemy ships are well
+	 * under it, and changing their sizes or the distance must keep it so.
+	 * 
+	 * @param entity
+	 *            Entity to find ships near to.
+	 * @param candidates
+	 *            Array to store the ships found in.
+	 * @return Number of ships stored in candidates.
+	 * @throws IllegalArgumentException
+	 *             If more ships are near than candidates holds, instead of
+	 *             missing collisions.
 	 */
-	private void cleanUp() {
-		Set<Integer> emptyColumns = new HashSet<Integer>();
-		int maxColumn = 0;
-		int minPositionY = Integer.MAX_VALUE;
-		for (List<EnemyShip> column : this.enemyShips) {
-			if (!column.isEmpty()) {
-				// Height of this column
-				int columnSize = column.get(column.size() - 1).positionY
-						- this.positionY + this.shipHeight;
-				maxColumn = Math.max(maxColumn, columnSize);
-				minPositionY = Math.min(minPositionY, column.get(0)
-						.getPositionY());
-			} else {
-				// Empty column, we remove it.
-				emptyColumns.add(this.enemyShips.indexOf(column));
+	public final int getShipsNear(final Entity entity,
+			final EnemyShip[] candidates) {
+		// One extra pixel on each side, collisions are checked on centers.
+		int left = entity.getPositionX() - this.gridPositionX - 1;
+		int top = entity.getPositionY() - this.gridPositionY - 1;
+		int right = left + entity.getWidth() + 2;
+		int bottom = top + entity.getHeight() + 2;
+
+		int firstColumn = Math.max(0, Math.floorDiv(left - this.shipWidth,
+				SEPARATION_DISTANCE));
+		int lastColumn = Math.min(this.nShipsWide - 1,
+				Math.floorDiv(right, SEPARATION_DISTANCE));
+		int firstRow = Math.max(0, Math.floorDiv(top - this.shipHeight,
+				SEPARATION_DISTANCE));
+		int lastRow = Math.min(this.nShipsHigh - 1,
+				Math.floorDiv(bottom, SEPARATION_DISTANCE));
+
+		int found = 0;
+		for (int column = firstColumn; column <= lastColumn; column++)
+			for (int row = firstRow; row <= lastRow; row++) {
+				EnemyShip ship = this.grid[column * this.nShipsHigh + row];
+				if (ship == null)
+					continue;
+				if (found == candidates.length)
+					throw new IllegalArgumentException("More than "
+							+ candidates.length + " ships near "
+							+ entity.getWidth() + "x" + entity.getHeight()
+							+ " entity, the separation between ships is "
+							+ "too small for its size.");
+				candidates[found++] = ship;
 			}
-		}
-		for (int index : emptyColumns) {
-			this.enemyShips.remove(index);
-			logger.info("Removed column " + index);
-		}
+		return found;
+	}
 
-		int leftMostPoint = 0;
-		int rightMostPoint = 0;
-		
-		for (List<EnemyShip> column : this.enemyShips) {
-			if (!column.isEmpty()) {
-				if (leftMostPoint == 0)
-					leftMostPoint = column.get(0).getPositionX();
-				rightMostPoint = column.get(0).getPositionX();
-			}
-		}
+	/**
+	 * Moves the first and last columns and rows with ships inwards, past
+	 * the ones left empty by removed ships, and adjusts the bounds of the
+	 * formation. Only the edges are checked, each of them at most once per
+	 * column or row over the whole game.
+	 */
+	private void shrinkBounds() {
+		while (this.leftColumn < this.rightColumn
+				&& isColumnEmpty(this.leftColumn))
+			this.leftColumn++;
+		while (this.rightColumn > this.leftColumn
+				&& isColumnEmpty(this.rightColumn))
+			this.rightColumn--;
+		while (this.topRow < this.bottomRow
+				&& this.rowCounts[this.topRow] == 0)
+			this.topRow++;
+		while (this.bottomRow > this.topRow
+				&& this.rowCounts[this.bottomRow] == 0)
+			this.bottomRow--;
+
+		updateBounds();
+	}
 
-		this.width = rightMostPoint - leftMostPoint + this.shipWidth;
-		this.height = maxColumn;
+	/**
+	 * Checks if a column has no ships shown.
+	 * 
+	 * @param column
+	 *            Column to check.
+	 * @return True if the column has no ships alive or exploding.
+	 */
+	private boolean isColumnEmpty(final int column) {
+		return (this.aliveRows[column] | this.explodingRows[column]) == 0;
+	}
 
-		this.positionX = leftMostPoint;
-		this.positionY = minPositionY;
+	/**
+	 * Adjusts the position, width and height of the formation to the first
+	 * and last columns and rows with ships.
+	 */
+	private void updateBounds() {
+		this.width = (this.rightColumn - this.leftColumn)
+				* SEPARATION_DISTANCE + this.shipWidth;
+		this.height = (this.bottomRow - this.topRow) * SEPARATION_DISTANCE
+				+ this.shipHeight;
+		this.positionX = this.gridPositionX + this.leftColumn
+				* SEPARATION_DISTANCE;
+		this.positionY = this.gridPositionY + this.topRow
+				* SEPARATION_DISTANCE;
 	}
 
 	/**
 	 * Shoots a bullet downwards.
 	 * 
 	 * @param bullets
-	 *            Bullets set to add the bullet being shot.
+	 *            Bullets on screen, to add the bullet being shot.
 	 */
-	public final void shoot(final Set<Bullet> bullets) {
+	public final void shoot(final BulletSystem bullets) {
 		// For now, only ships in the bottom row are able to shoot.
-		int index = (int) (Math.random() * this.shooters.size());
-		EnemyShip shooter = this.shooters.get(index);
+		int index = this.random.nextInt(this.shooterCount);
+		EnemyShip shooter = getShooter(this.shooterColumns[index]);
 
 		if (this.shootingCooldown.checkFinished()) {
 			this.shootingCooldown.reset();
-			bullets.add(BulletPool.getBullet(shooter.getPositionX()
-					+ shooter.width / 2, shooter.getPositionY(), BULLET_SPEED));
+			bullets.add(shooter.getPositionX() + shooter.width / 2,
+					shooter.getPositionY(), BULLET_SPEED, BulletSystem.ENEMY);
+			Core.getJournal().record(Core.getClock().getTicks(),
+					EventJournal.SHOT,
+					EventJournal.formationShip(shooter.getColumn(),
+							shooter.getRow()), 0,
+					shooter.getPositionX() + shooter.width / 2,
+					shooter.getPositionY());
 		}
 	}
 
@@ -349,73 +475,116 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	 *            Ship to be destroyed.
 	 */
 	public final void destroy(final EnemyShip destroyedShip) {
-		for (List<EnemyShip> column : this.enemyShips)
-			for (int i = 0; i < column.size(); i++)
-				if (column.get(i).equals(destroyedShip)) {
-					column.get(i).destroy();
-					this.logger.info("Destroyed ship in ("
-							+ this.enemyShips.indexOf(column) + "," + i + ")");
-				}
-
-		// Updates the list of ships that can shoot the player.
-		if (this.shooters.contains(destroyedShip)) {
-			int destroyedShipIndex = this.shooters.indexOf(destroyedShip);
-			int destroyedShipColumnIndex = -1;
-
-			for (List<EnemyShip> column : this.enemyShips)
-				if (column.contains(destroyedShip)) {
-					destroyedShipColumnIndex = this.enemyShips.indexOf(column);
-					break;
-				}
-
-			EnemyShip nextShooter = getNextShooter(this.enemyShips
-					.get(destroyedShipColumnIndex));
-
-			if (nextShooter != null)
-				this.shooters.set(destroyedShipIndex, nextShooter);
-			else {
-				this.shooters.remove(destroyedShipIndex);
-				this.logger.info("Shooters list reduced to "
-						+ this.shooters.size() + " members.");
-			}
+		int column = destroyedShip.getColumn();
+		int row = destroyedShip.getRow();
+		long rowBit = 1L << row;
+
+		if (this.grid[column * this.nShipsHigh + row] != destroyedShip
+				|| (this.aliveRows[column] & rowBit) == 0)
+			return;
+
+		destroyedShip.destroy();
+		this.aliveRows[column] &= ~rowBit;
+		this.explodingRows[column] |= rowBit;
+		if (this.logger.isLoggable(Level.FINE))
+			this.logger.fine("Destroyed ship in (" + column + "," + row
+					+ ")");
+
+		// Updates the list of columns that can shoot the player.
+		if (this.aliveRows[column] == 0) {
+			int index = this.shooterIndex[column];
+			int lastColumn = this.shooterColumns[--this.shooterCount];
+			this.shooterColumns[index] = lastColumn;
+			this.shooterIndex[lastColumn] = index;
+			this.shooterIndex[column] = -1;
+			if (this.logger.isLoggable(Level.FINE))
+				this.logger.fine("Shooters list reduced to "
+						+ this.shooterCount + " members.");
 		}
 
 		this.shipCount--;
 	}
 
 	/**
-	 * Gets the ship on a given column that will be in charge of shooting.
+	 * Gets the ship on a given column that will be in charge of shooting,
+	 * the lowest one alive.
 	 * 
 	 * @param column
 	 *            Column to search.
-	 * @return New shooter ship.
+	 * @return Shooter ship, null if the column has no ships alive.
 	 */
-	public final EnemyShip getNextShooter(final List<EnemyShip> column) {
-		Iterator<EnemyShip> iterator = column.iterator();
-		EnemyShip nextShooter = null;
-		while (iterator.hasNext()) {
-			EnemyShip checkShip = iterator.next();
-			if (checkShip != null && !checkShip.isDestroyed())
-				nextShooter = checkShip;
-		}
+	private EnemyShip getShooter(final int column) {
+		long rows = this.aliveRows[column];
+		if (rows == 0)
+			return null;
+		int row = MAX_SHIPS_HIGH - 1 - Long.numberOfLeadingZeros(rows);
+		return this.grid[column * this.nShipsHigh + row];
+	}
+
+	/**
+	 * Returns the number of places in the formation, occupied or not. Ships
+	 * can be traversed without allocations with getShip.
+	 * 
+	 * @return Number of places in the formation.
+	 */
+	public final int getSize() {
+		return this.grid.length;
+	}
 
-		return nextShooter;
+	/**
+	 * Returns the ship in a given place of the formation. Places are ordered
+	 * column by column, from the top, and keep their ship until it is
+	 * removed.
+	 * 
+	 * @param index
+	 *            Index of the place, between 0 and getSize() - 1.
+	 * @return Ship in the given place, null if there is none.
+	 */
+	public final EnemyShip getShip(final int index) {
+		return this.grid[index];
 	}
 
 	/**
-	 * Returns an iterator over the ships in the formation.
+	 * Returns an iterator over the ships in the formation, in the same order
+	 * as their places.
 	 * 
 	 * @return Iterator over the enemy ships.
 	 */
 	@Override
 	public final Iterator<EnemyShip> iterator() {
-		Set<EnemyShip> enemyShipsList = new HashSet<EnemyShip>();
+		return new Iterator<EnemyShip>() {
+			/** Index of the next place to look at. */
+			private int index = nextOccupied(0);
 
-		for (List<EnemyShip> column : this.enemyShips)
-			for (EnemyShip enemyShip : column)
-				enemyShipsList.add(enemyShip);
+			@Override
+			public boolean hasNext() {
+				return this.index < grid.length;
+			}
 
-		return enemyShipsList.iterator();
+			@Override
+			public EnemyShip next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				EnemyShip enemyShip = grid[this.index];
+				this.index = nextOccupied(this.index + 1);
+				return enemyShip;
+			}
+		};
+	}
+
+	/**
+	 * Finds the next place of the formation with a ship.
+	 * 
+	 * @param from
+	 *            Index of the first place to look at.
+	 * @return Index of the next place with a ship, or the number of places if
+	 *         there are none left.
+	 */
+	private int nextOccupied(final int from) {
+		int index = from;
+		while (index < this.grid.length && this.grid[index] == null)
+			index++;
+		return index;
 	}
 
 	/**
@@ -1,7 +1,6 @@
 package entity;
 
 import java.awt.Color;
-import java.util.Set;
 
 import engine.Cooldown;
 import engine.Core;
@@ -63,14 +62,14 @@ public class Ship extends Entity {
 	 * Shoots a bullet upwards.
 	 * 
 	 * @param bullets
-	 *            List of bullets on screen, to add the new bullet.
+	 *            Bullets on screen, to add the new bullet.
 	 * @return Checks if the bullet was shot correctly.
 	 */
-	public final boolean shoot(final Set<Bullet> bullets) {
+	public final boolean shoot(final BulletSystem bullets) {
 		if (this.shootingCooldown.checkFinished()) {
 			this.shootingCooldown.reset();
-			bullets.add(BulletPool.getBullet(positionX + this.width / 2,
-					positionY, BULLET_SPEED));
+			bullets.add(positionX + this.width / 2, positionY, BULLET_SPEED,
+					BulletSystem.PLAYER);
 			return true;
 		}
 		return false;
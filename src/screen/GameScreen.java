@@ -1,15 +1,17 @@
 package screen;
 
 import java.awt.event.KeyEvent;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.logging.Level;
 
 import engine.Cooldown;
 import engine.Core;
+import engine.EventJournal;
+import engine.FrameTelemetry;
+import engine.GameEvents;
 import engine.GameSettings;
 import engine.GameState;
 import entity.Bullet;
-import entity.BulletPool;
+import entity.BulletSystem;
 import entity.EnemyShip;
 import entity.EnemyShipFormation;
 import entity.Entity;
@@ -37,6 +39,12 @@ public class GameScreen extends Screen {
 	private static final int SCREEN_CHANGE_INTERVAL = 1500;
 	/** Height of the interface separation line. */
 	private static final int SEPARATION_LINE_HEIGHT = 40;
+	/**
+	 * Maximum number of enemy ships a bullet is checked against. A bullet
+	 * covers at most two columns and two rows of the formation, as long as
+	 * it and a ship fit within the distance between ships.
+	 */
+	private static final int MAX_COLLISION_CANDIDATES = 4;
 
 	/** Current game difficulty settings. */
 	private GameSettings gameSettings;
@@ -54,8 +62,17 @@ public class GameScreen extends Screen {
 	private Cooldown enemyShipSpecialExplosionCooldown;
 	/** Time from finishing the level to screen change. */
 	private Cooldown screenFinishedCooldown;
-	/** Set of all bullets fired by on screen ships. */
-	private Set<Bullet> bullets;
+	/** All bullets fired by on screen ships. */
+	private BulletSystem bullets;
+	/**
+	 * Enemy ships near the bullet being checked for collisions, at most the
+	 * four in the grid cells it covers.
+	 */
+	private EnemyShip[] collisionCandidates;
+	/** Journal of gameplay events. */
+	private EventJournal journal;
+	/** Pairs of bullet and ship tested in the current collision pass. */
+	private int pairsTested;
 	/** Current score. */
 	private int score;
 	/** Player lives left. */
@@ -119,10 +136,14 @@ public class GameScreen extends Screen {
 		this.enemyShipSpecialExplosionCooldown = Core
 				.getCooldown(BONUS_SHIP_EXPLOSION);
 		this.screenFinishedCooldown = Core.getCooldown(SCREEN_CHANGE_INTERVAL);
-		this.bullets = new HashSet<Bullet>();
+		this.bullets = new BulletSystem();
+		this.collisionCandidates = new EnemyShip[MAX_COLLISION_CANDIDATES];
+		this.journal = Core.getJournal();
+		this.journal.record(Core.getClock().getTicks(),
+				EventJournal.LEVEL_START, this.level, this.lives, 0, 0);
 
 		// Special input delay / countdown.
-		this.gameStartTime = System.currentTimeMillis();
+		this.gameStartTime = Core.getClock().getTimeMillis();
 		this.inputDelay = Core.getCooldown(INPUT_DELAY);
 		this.inputDelay.reset();
 	}
@@ -136,7 +157,12 @@ public class GameScreen extends Screen {
 		super.run();
 
 		this.score += LIFE_SCORE * (this.lives - 1);
+		this.journal.record(Core.getClock().getTicks(),
+				EventJournal.LEVEL_END, this.level, this.score, 0, 0);
+		this.journal.flush();
 		this.logger.info("Screen cleared with a score of " + this.score);
+		this.logger.info("Up to " + this.bullets.getHighWaterMark()
+				+ " bullets on screen.");
 
 		return this.returnCode;
 	}
@@ -167,8 +193,14 @@ public class GameScreen extends Screen {
 					this.ship.moveLeft();
 				}
 				if (inputManager.isKeyDown(KeyEvent.VK_SPACE))
-					if (this.ship.shoot(this.bullets))
+					if (this.ship.shoot(this.bullets)) {
 						this.bulletsShot++;
+						this.journal.record(Core.getClock().getTicks(),
+								EventJournal.SHOT, EventJournal.PLAYER, 0,
+								this.ship.getPositionX()
+										+ this.ship.getWidth() / 2,
+								this.ship.getPositionY());
+					}
 			}
 
 			if (this.enemyShipSpecial != null) {
@@ -182,6 +214,10 @@ public class GameScreen extends Screen {
 					&& this.enemyShipSpecialCooldown.checkFinished()) {
 				this.enemyShipSpecial = new EnemyShip();
 				this.enemyShipSpecialCooldown.reset();
+				this.journal.record(Core.getClock().getTicks(),
+						EventJournal.BONUS_SHIP, EventJournal.BONUS, 0,
+						this.enemyShipSpecial.getPositionX(),
+						this.enemyShipSpecial.getPositionY());
 				this.logger.info("A special ship appears");
 			}
 			if (this.enemyShipSpecial != null
@@ -195,9 +231,10 @@ public class GameScreen extends Screen {
 			this.enemyShipFormation.shoot(this.bullets);
 		}
 
-		manageCollisions();
-		cleanBullets();
-		draw();
+		FrameTelemetry telemetry = Core.getTelemetry();
+		telemetry.startPhase(FrameTelemetry.Phase.Bullets);
+		manageBullets();
+		telemetry.endPhase(FrameTelemetry.Phase.Bullets);
 
 		if ((this.enemyShipFormation.isEmpty() || this.lives == 0)
 				&& !this.levelFinished) {
@@ -213,7 +250,7 @@ public class GameScreen extends Screen {
 	/**
 	 * Draws the elements associated with the screen.
 	 */
-	private void draw() {
+	protected final void draw() {
 		drawManager.initDrawing(this);
 
 		drawManager.drawEntity(this.ship, this.ship.getPositionX(),
@@ -225,9 +262,11 @@ public class GameScreen extends Screen {
 
 		enemyShipFormation.draw();
 
-		for (Bullet bullet : this.bullets)
+		for (int i = 0; i < this.bullets.getCount(); i++) {
+			Bullet bullet = this.bullets.getView(i);
 			drawManager.drawEntity(bullet, bullet.getPositionX(),
 					bullet.getPositionY());
+		}
 
 		// Interface.
 		drawManager.drawScore(this, this.score);
@@ -237,7 +276,7 @@ public class GameScreen extends Screen {
 		// Countdown to game start.
 		if (!this.inputDelay.checkFinished()) {
 			int countdown = (int) ((INPUT_DELAY
-					- (System.currentTimeMillis()
+					- (Core.getClock().getTimeMillis()
 							- this.gameStartTime)) / 1000);
 			drawManager.drawCountDown(this, this.level, countdown,
 					this.bonusLife);
@@ -251,57 +290,119 @@ public class GameScreen extends Screen {
 	}
 
 	/**
-	 * Cleans bullets that go off screen.
+	 * Manages every bullet in a single pass: checks collisions between
+	 * bullets and ships, then moves the bullets and removes those that go
+	 * off screen.
 	 */
-	private void cleanBullets() {
-		Set<Bullet> recyclable = new HashSet<Bullet>();
-		for (Bullet bullet : this.bullets) {
-			bullet.update();
-			if (bullet.getPositionY() < SEPARATION_LINE_HEIGHT
-					|| bullet.getPositionY() > this.height)
-				recyclable.add(bullet);
+	private void manageBullets() {
+		GameEvents.Collisions event = new GameEvents.Collisions();
+		event.begin();
+		int bulletsChecked = 0;
+		int hits = 0;
+		this.pairsTested = 0;
+
+		int i = 0;
+		while (i < this.bullets.getCount()) {
+			boolean hit;
+			bulletsChecked++;
+			if (this.bullets.getOwner(i) == BulletSystem.ENEMY)
+				hit = manageEnemyBulletCollision(this.bullets.getView(i));
+			else
+				hit = managePlayerBulletCollision(this.bullets.getView(i));
+
+			if (hit) {
+				// The last bullet takes its place, and is checked next.
+				this.bullets.remove(i);
+				hits++;
+				continue;
+			}
+
+			int positionY = this.bullets.move(i);
+			if (positionY < SEPARATION_LINE_HEIGHT || positionY > this.height)
+				this.bullets.remove(i);
+			else
+				i++;
+		}
+
+		event.end();
+		if (event.shouldCommit()) {
+			event.bulletsChecked = bulletsChecked;
+			event.pairsTested = this.pairsTested;
+			event.hits = hits;
+			event.commit();
 		}
-		this.bullets.removeAll(recyclable);
-		BulletPool.recycle(recyclable);
 	}
 
 	/**
-	 * Manages collisions between bullets and ships.
+	 * Manages collisions between an enemy bullet and the player's ship.
+	 * 
+	 * @param bullet
+	 *            Bullet shot by an enemy.
+	 * @return True if the bullet hit and must be removed.
 	 */
-	private void manageCollisions() {
-		Set<Bullet> recyclable = new HashSet<Bullet>();
-		for (Bullet bullet : this.bullets)
-			if (bullet.getSpeed() > 0) {
-				if (checkCollision(bullet, this.ship) && !this.levelFinished) {
-					recyclable.add(bullet);
-					if (!this.ship.isDestroyed()) {
-						this.ship.destroy();
-						this.lives--;
-						this.logger.info("Hit on player ship, " + this.lives
-								+ " lives remaining.");
-					}
-				}
-			} else {
-				for (EnemyShip enemyShip : this.enemyShipFormation)
-					if (!enemyShip.isDestroyed()
-							&& checkCollision(bullet, enemyShip)) {
-						this.score += enemyShip.getPointValue();
-						this.shipsDestroyed++;
-						this.enemyShipFormation.destroy(enemyShip);
-						recyclable.add(bullet);
-					}
-				if (this.enemyShipSpecial != null
-						&& !this.enemyShipSpecial.isDestroyed()
-						&& checkCollision(bullet, this.enemyShipSpecial)) {
-					this.score += this.enemyShipSpecial.getPointValue();
-					this.shipsDestroyed++;
-					this.enemyShipSpecial.destroy();
-					this.enemyShipSpecialExplosionCooldown.reset();
-					recyclable.add(bullet);
-				}
+	private boolean manageEnemyBulletCollision(final Bullet bullet) {
+		this.pairsTested++;
+		if (checkCollision(bullet, this.ship) && !this.levelFinished) {
+			if (!this.ship.isDestroyed()) {
+				this.ship.destroy();
+				this.lives--;
+				this.journal.record(Core.getClock().getTicks(),
+						this.lives > 0 ? EventJournal.HIT : EventJournal.DEATH,
+						EventJournal.PLAYER, this.lives, bullet.getPositionX(),
+						bullet.getPositionY());
+				if (this.logger.isLoggable(Level.INFO))
+					this.logger.info("Hit on player ship, " + this.lives
+							+ " lives remaining.");
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Manages collisions between a player bullet and the enemy ships.
+	 * 
+	 * @param bullet
+	 *            Bullet shot by the player.
+	 * @return True if the bullet hit and must be removed.
+	 */
+	private boolean managePlayerBulletCollision(final Bullet bullet) {
+		boolean hit = false;
+
+		int candidates = this.enemyShipFormation.getShipsNear(bullet,
+				this.collisionCandidates);
+		this.pairsTested += candidates;
+		for (int i = 0; i < candidates; i++) {
+			EnemyShip enemyShip = this.collisionCandidates[i];
+			if (!enemyShip.isDestroyed()
+					&& checkCollision(bullet, enemyShip)) {
+				this.score += enemyShip.getPointValue();
+				this.shipsDestroyed++;
+				this.journal.record(Core.getClock().getTicks(),
+						EventJournal.KILL, EventJournal.PLAYER,
+						EventJournal.formationShip(enemyShip.getColumn(),
+								enemyShip.getRow()),
+						enemyShip.getPositionX(), enemyShip.getPositionY());
+				this.enemyShipFormation.destroy(enemyShip);
+				hit = true;
 			}
-		this.bullets.removeAll(recyclable);
-		BulletPool.recycle(recyclable);
+		}
+		if (this.enemyShipSpecial != null)
+			this.pairsTested++;
+		if (this.enemyShipSpecial != null
+				&& !this.enemyShipSpecial.isDestroyed()
+				&& checkCollision(bullet, this.enemyShipSpecial)) {
+			this.score += this.enemyShipSpecial.getPointValue();
+			this.shipsDestroyed++;
+			this.journal.record(Core.getClock().getTicks(),
+					EventJournal.KILL, EventJournal.PLAYER, EventJournal.BONUS,
+					this.enemyShipSpecial.getPositionX(),
+					this.enemyShipSpecial.getPositionY());
+			this.enemyShipSpecial.destroy();
+			this.enemyShipSpecialExplosionCooldown.reset();
+			hit = true;
+		}
+		return hit;
 	}
 
 	/**
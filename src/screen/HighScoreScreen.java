@@ -57,7 +57,6 @@ public class HighScoreScreen extends Screen {
 	protected final void update() {
 		super.update();
 
-		draw();
 		if (inputManager.isKeyDown(KeyEvent.VK_SPACE)
 				&& this.inputDelay.checkFinished())
 			this.isRunning = false;
@@ -66,7 +65,7 @@ public class HighScoreScreen extends Screen {
 	/**
 	 * Draws the elements associated with the screen.
 	 */
-	private void draw() {
+	protected final void draw() {
 		drawManager.initDrawing(this);
 
 		drawManager.drawHighScoreMenu(this);
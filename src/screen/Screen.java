@@ -1,12 +1,16 @@
 package screen;
 
 import java.awt.Insets;
-import java.util.concurrent.TimeUnit;
+import java.awt.event.KeyEvent;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Logger;
 
+import engine.Clock;
 import engine.Cooldown;
 import engine.Core;
 import engine.DrawManager;
+import engine.FrameTelemetry;
+import engine.GameEvents;
 import engine.InputManager;
 
 /**
@@ -19,6 +23,12 @@ public class Screen {
 	
 	/** Milliseconds until the screen accepts user input. */
 	private static final int INPUT_DELAY = 1000;
+	/** Nanoseconds in a second. */
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	/** Maximum updates run before drawing when the loop falls behind. */
+	private static final int MAX_CATCH_UP_TICKS = 5;
+	/** Nanoseconds before a frame deadline to stop parking and spin. */
+	private static final long SPIN_THRESHOLD = 1000000L;
 
 	/** Draw Manager instance. */
 	protected DrawManager drawManager;
@@ -31,7 +41,7 @@ public class Screen {
 	protected int width;
 	/** Screen height. */
 	protected int height;
-	/** Frames per second shown on the screen. */
+	/** Frames per second shown on the screen, also updates per second. */
 	protected int fps;
 	/** Screen insets. */
 	protected Insets insets;
@@ -74,37 +84,148 @@ public class Screen {
 	}
 
 	/**
-	 * Activates the screen.
+	 * Activates the screen. Updates run at a fixed rate of fps per second,
+	 * independently of how long drawing takes, and the screen is drawn once
+	 * after each batch of updates, showing the state of the last one.
 	 * 
 	 * @return Next screen code.
 	 */
 	public int run() {
 		this.isRunning = true;
+		FrameTelemetry telemetry = Core.getTelemetry();
+		telemetry.startScreen(getClass().getSimpleName());
 
-		while (this.isRunning) {
-			long time = System.currentTimeMillis();
+		if (Core.isHeadless()) {
+			while (this.isRunning)
+				tick();
+			return 0;
+		}
 
-			update();
+		// Elapsed time is kept multiplied by fps, so no rounding is needed.
+		long accumulator = NANOS_PER_SECOND;
+		long previousTime = System.nanoTime();
 
-			time = (1000 / this.fps) - (System.currentTimeMillis() - time);
-			if (time > 0) {
-				try {
-					TimeUnit.MILLISECONDS.sleep(time);
-				} catch (InterruptedException e) {
-					return 0;
+		while (this.isRunning) {
+			telemetry.beginFrame();
+			long currentTime = System.nanoTime();
+			accumulator += (currentTime - previousTime) * this.fps;
+			previousTime = currentTime;
+
+			int ticks = 0;
+			while (accumulator >= NANOS_PER_SECOND && this.isRunning) {
+				tick();
+				accumulator -= NANOS_PER_SECOND;
+
+				if (++ticks >= MAX_CATCH_UP_TICKS) {
+					// Too far behind, drops the remaining updates.
+					accumulator %= NANOS_PER_SECOND;
+					break;
 				}
 			}
+
+			telemetry.startPhase(FrameTelemetry.Phase.Draw);
+			GameEvents.Draw drawEvent = new GameEvents.Draw();
+			drawEvent.begin();
+			draw();
+			drawEvent.end();
+			if (drawEvent.shouldCommit()) {
+				drawEvent.screen = getClass().getSimpleName();
+				drawEvent.entitiesDrawn = this.drawManager.getEntitiesDrawn();
+				drawEvent.commit();
+			}
+			telemetry.endPhase(FrameTelemetry.Phase.Draw);
+			telemetry.endFrame();
+
+			long nextTick = currentTime
+					+ (NANOS_PER_SECOND - accumulator + this.fps - 1)
+					/ this.fps;
+			if (!waitUntil(nextTick))
+				break;
 		}
 
+		telemetry.endScreen();
 		return 0;
 	}
 
+	/**
+	 * Runs a single update, advancing the game clock and the input.
+	 */
+	private void tick() {
+		FrameTelemetry telemetry = Core.getTelemetry();
+		GameEvents.Tick tickEvent = new GameEvents.Tick();
+		tickEvent.begin();
+		Clock clock = Core.getClock();
+		clock.tick(this.fps);
+
+		telemetry.startPhase(FrameTelemetry.Phase.Input);
+		this.inputManager.update(clock.getTicks());
+		telemetry.endPhase(FrameTelemetry.Phase.Input);
+		if (this.drawManager != null
+				&& this.inputManager.wasKeyPressed(KeyEvent.VK_F3))
+			this.drawManager.toggleDebugOverlay();
+
+		telemetry.startPhase(FrameTelemetry.Phase.Update);
+		GameEvents.Update updateEvent = new GameEvents.Update();
+		updateEvent.begin();
+		update();
+		updateEvent.end();
+		if (updateEvent.shouldCommit()) {
+			updateEvent.screen = getClass().getSimpleName();
+			updateEvent.commit();
+		}
+		telemetry.endPhase(FrameTelemetry.Phase.Update);
+
+		tickEvent.end();
+		if (tickEvent.shouldCommit()) {
+			tickEvent.screen = getClass().getSimpleName();
+			tickEvent.tick = clock.getTicks();
+			tickEvent.commit();
+		}
+	}
+
+	/**
+	 * Waits until the given moment, parking the thread while it is far and
+	 * spinning for the last part, as parking is not precise enough.
+	 * 
+	 * @param deadline
+	 *            Moment to wait for, in System.nanoTime() terms.
+	 * @return False if the thread was interrupted while waiting.
+	 */
+	private static boolean waitUntil(final long deadline) {
+		long remaining = deadline - System.nanoTime();
+
+		while (remaining > SPIN_THRESHOLD) {
+			LockSupport.parkNanos(remaining - SPIN_THRESHOLD);
+			if (Thread.interrupted())
+				return false;
+			remaining = deadline - System.nanoTime();
+		}
+		while (deadline - System.nanoTime() > 0)
+			Thread.onSpinWait();
+
+		return true;
+	}
+
 	/**
 	 * Updates the elements on screen and checks for events.
 	 */
 	protected void update() {
 	}
 
+	/**
+	 * Draws the screen once, without running it, to time how long the first
+	 * frame takes to show.
+	 */
+	public final void drawOnce() {
+		draw();
+	}
+
+	/**
+	 * Draws the elements associated with the screen.
+	 */
+	protected void draw() {
+	}
+
 	/**
 	 * Getter for screen width.
 	 * 
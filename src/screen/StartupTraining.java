@@ -0,0 +1,96 @@
+package screen;
+
+import java.awt.GraphicsEnvironment;
+
+import engine.Clock;
+import engine.Core;
+import engine.DrawManager;
+import engine.Frame;
+import engine.GameState;
+import engine.InputManager;
+import engine.RandomInputScript;
+import engine.Simulator;
+
+/**
+ * Runs the code the game needs at startup and during play, without user
+ * input and with no need for a display, so the classes it loads can be
+ * recorded and archived for faster startup. Every screen is updated and
+ * drawn for a while, and a few games are played headless.
+ * 
+ * @author <a href="mailto:RobertoIA1987@gmail.com">Roberto Izquierdo Amo</a>
+ * 
+ */
+public final class StartupTraining {
+
+	/** Width of the frame. */
+	private static final int WIDTH = 448;
+	/** Height of the frame. */
+	private static final int HEIGHT = 520;
+	/** Frames per second of the screens. */
+	private static final int FPS = 60;
+	/** Lives of the game state shown. */
+	private static final int LIVES = 3;
+	/** Updates run and frames drawn on each screen. */
+	private static final int TRAINING_FRAMES = 120;
+	/** Games played headless. */
+	private static final int TRAINING_GAMES = 3;
+
+	/**
+	 * Runs the training. A frame is shown too if there is a display.
+	 * 
+	 * @param args
+	 *            Program args, ignored.
+	 */
+	public static void main(final String[] args) {
+		DrawManager drawManager = Core.getDrawManager();
+		Frame frame = null;
+		int width = WIDTH;
+		int height = HEIGHT;
+		if (!GraphicsEnvironment.isHeadless()) {
+			frame = new Frame(WIDTH, HEIGHT);
+			drawManager.setFrame(frame);
+			width = frame.getWidth();
+			height = frame.getHeight();
+		}
+
+		GameState gameState = new GameState(1, 0, LIVES, 0, 0);
+		train(new TitleScreen(width, height, FPS));
+		train(new GameScreen(gameState, Core.getGameSettings().get(0),
+				false, width, height, FPS));
+		train(new ScoreScreen(width, height, FPS, gameState));
+		train(new HighScoreScreen(width, height, FPS));
+
+		for (long seed = 0; seed < TRAINING_GAMES; seed++)
+			Simulator.simulate(seed, new RandomInputScript(seed));
+
+		if (frame != null)
+			frame.dispose();
+		System.exit(0);
+	}
+
+	/**
+	 * Constructor, not called.
+	 */
+	private StartupTraining() {
+
+	}
+
+	/**
+	 * Updates and draws a screen, as fast as possible.
+	 * 
+	 * @param screen
+	 *            Screen to train.
+	 */
+	private static void train(final Screen screen) {
+		Clock clock = Core.getClock();
+		InputManager inputManager = Core.getInputManager();
+
+		screen.initialize();
+		for (int i = 0; i < TRAINING_FRAMES; i++) {
+			clock.tick(FPS);
+			inputManager.update(clock.getTicks());
+			screen.update();
+			screen.draw();
+		}
+	}
+}